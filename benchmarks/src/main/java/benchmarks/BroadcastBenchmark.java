@@ -0,0 +1,90 @@
+package benchmarks;
+
+import chess.ChessGame;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import server.websocket.ConnectionManager;
+import websocket.messages.LoadGameMessages;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConnectionManager.broadcast over open sessions that discard what they are sent.
+ * Connections are spread over games three at a time (two players and an observer),
+ * and every broadcast goes to game 0 from its first connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BroadcastBenchmark {
+
+    private static final int CONNECTIONS_PER_GAME = 3;
+
+    @Param({"3", "300", "3000"})
+    public int connections;
+
+    private final ConnectionManager manager = new ConnectionManager();
+    private final ServerMessage notification = new NotificationMessage(
+            ServerMessage.ServerMessageType.NOTIFICATION, "player0 moved e2 to e4");
+    private final ServerMessage loadGame = new LoadGameMessages(
+            ServerMessage.ServerMessageType.LOAD_GAME, new ChessGame());
+    private long sent;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < connections; i++) {
+            manager.add("token" + i, i / CONNECTIONS_PER_GAME, mockSession());
+        }
+    }
+
+    @Benchmark
+    public long broadcastNotification() throws IOException {
+        manager.broadcast("token0", 0, notification);
+        return sent;
+    }
+
+    @Benchmark
+    public long broadcastLoadGame() throws IOException {
+        manager.broadcast("token0", 0, loadGame);
+        return sent;
+    }
+
+    /**
+     * A Session that is always open and whose remote endpoint only counts the
+     * characters sent to it. Anything else the manager calls is a bug in the benchmark.
+     */
+    private Session mockSession() {
+        var remote = (RemoteEndpoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("sendString")) {
+                        sent += ((String) args[0]).length();
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return (Session) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Session.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "isOpen" -> true;
+                    case "getRemote" -> remote;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,106 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the ChessGame calls the server makes for every move.
+ * The position is one of the perft reference positions, picked by name.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChessGameBenchmark {
+
+    private static final String FOOLS_MATE = "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3";
+
+    @Param({"start", "kiwipete", "middlegame"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame mated;
+    private ChessGame.TeamColor toMove;
+    private List<ChessPosition> pieces;
+    private ChessMove move;
+
+    @Setup
+    public void setup() {
+        var fen = Perft.REFERENCE_POSITIONS.stream()
+                .filter(p -> p.name().equals(position))
+                .findFirst()
+                .orElseThrow()
+                .fen();
+        game = Fen.load(fen);
+        mated = Fen.load(FOOLS_MATE);
+        toMove = game.getTeamTurn();
+        pieces = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                var piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                if (piece != null && piece.getTeamColor() == toMove) {
+                    pieces.add(ChessPosition.of(row, col));
+                }
+            }
+        }
+        move = game.legalMoves(toMove).iterator().next();
+    }
+
+    /**
+     * validMoves for every piece of the team to move, as the client does when
+     * highlighting a whole board
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        for (var start : pieces) {
+            blackhole.consume(game.validMoves(start));
+        }
+    }
+
+    @Benchmark
+    public ChessBoard makeMove() throws InvalidMoveException {
+        game.makeMove(move);
+        // Undo so every invocation starts from the same position
+        game.getBoard().unmakeMove();
+        game.setTeamTurn(toMove);
+        return game.getBoard();
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        return game.isInCheckmate(toMove);
+    }
+
+    @Benchmark
+    public boolean isInCheckmateMated() {
+        return mated.isInCheckmate(mated.getTeamTurn());
+    }
+
+    @Benchmark
+    public ChessBoard cloneBoard() {
+        return game.getBoard().clone();
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Fen;
+import chess.Perft;
+import chess.search.Evaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Static evaluation as the search calls it: the pawn structure is cached after the
+ * first call, so this measures the steady state of reading the board's running sums.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EvaluatorBenchmark {
+
+    @Param({"start", "kiwipete", "endgame"})
+    public String position;
+
+    private final Evaluator evaluator = new Evaluator();
+    private ChessBoard board;
+    private ChessGame.TeamColor toMove;
+
+    @Setup
+    public void setup() {
+        var fen = Perft.REFERENCE_POSITIONS.stream()
+                .filter(p -> p.name().equals(position))
+                .findFirst()
+                .orElseThrow()
+                .fen();
+        var game = Fen.load(fen);
+        board = game.getBoard();
+        toMove = game.getTeamTurn();
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return evaluator.evaluate(board, toMove);
+    }
+}
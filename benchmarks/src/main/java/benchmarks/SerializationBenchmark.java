@@ -0,0 +1,102 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessJson;
+import chess.Fen;
+import chess.GameCodec;
+import chess.Perft;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ways of turning a ChessGame into something to store or send and back: reflective
+ * Gson, Gson with the streaming {@link ChessJson} adapters, FEN and the binary
+ * {@link GameCodec}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    @Param({"start", "kiwipete"})
+    public String position;
+
+    private final Gson serializer = new Gson();
+    private final Gson adapters = ChessJson.gson();
+    private ChessGame game;
+    private String json;
+    private String fen;
+    private byte[] bytes;
+
+    @Setup
+    public void setup() {
+        game = Fen.load(Perft.REFERENCE_POSITIONS.stream()
+                .filter(p -> p.name().equals(position))
+                .findFirst()
+                .orElseThrow()
+                .fen());
+        json = serializer.toJson(game);
+        fen = game.toFen();
+        bytes = GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return serializer.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return serializer.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTrip() {
+        return serializer.fromJson(serializer.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public String adapterToJson() {
+        return adapters.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame adapterFromJson() {
+        return adapters.fromJson(json, ChessGame.class);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame decode() {
+        return GameCodec.decode(bytes);
+    }
+}
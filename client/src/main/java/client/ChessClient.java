@@ -7,6 +7,7 @@ import chess.ChessPiece;
 import chess.ChessPosition;
 import client.websocket.NotificationHandler;
 import client.websocket.WebSocketFacade;
+import model.Analysis;
 import model.GameData;
 import serverfacade.ServerFacade;
 import requests.*;
@@ -20,6 +21,9 @@ import java.util.Scanner;
 public class ChessClient {
     private final NotificationHandler notificationHandler;
     private String authToken = null;
+    private String username = null;
+    private ListGamesRequest listing = null;
+    private Integer nextCursor = null;
     private ArrayList<GameData> gameList = null;
     private final ServerFacade server;
     private final String serverUrl;
@@ -62,7 +66,8 @@ public class ChessClient {
     public String postEval(String[] params, String cmd) throws RuntimeException{
         return switch (cmd) {
             case "create" -> create(params);
-            case "list" -> list();
+            case "list" -> list(params);
+            case "next" -> next();
             case "join" -> join(params);
             case "observe" -> observe(params);
             case "logout" -> logout();
@@ -79,6 +84,7 @@ public class ChessClient {
             case "quit" -> quit();
             case "highlight" -> highlight(params);
             case "leave" -> leave();
+            case "analyze" -> analyze(params);
             default -> gameHelp();
         };
     }
@@ -92,8 +98,9 @@ public class ChessClient {
 
     public String postHelp() {
         return """
-                create <GameName> - to create a game
-                list - list all games
+                create <GameName> [BotLevel 1-5] - to create a game, or one against the computer
+                list [open|mine|finished|active] - list games, optionally only some
+                next - show the next page of the last list
                 join <ID> <WHITE|BLACK> - Join game as a color
                 observe <ID> - observe game
                 logout - logout of server
@@ -107,6 +114,7 @@ public class ChessClient {
                 move <Position> <Position> <Promotion Piece>- Moves a piece from first position to second
                 resign - If your losing too bad
                 highlight - Highlight Legal Moves
+                analyze [Depth 1-10] - Ask the engine for the best move and score
                 quit - Stop client
                 help - All commands""";}
 
@@ -120,6 +128,7 @@ public class ChessClient {
         var user = server.register(new UserData(username, password, email));
         state = State.PostloginClient;
         authToken = user.authToken();
+        this.username = username;
         return postHelp();
     }
 
@@ -132,6 +141,7 @@ public class ChessClient {
         var user = server.login(new UserData(username, password, null));
         state = State.PostloginClient;
         authToken = user.authToken();
+        this.username = username;
         return postHelp();
     }
 
@@ -140,14 +150,55 @@ public class ChessClient {
             throw new RuntimeException("Expected: <username> <password>");
         }
         var gameName = params[0];
-        server.create(new CreateGameRequest(gameName, authToken));
+        Integer botLevel = null;
+        if (params.length > 1) {
+            try {
+                botLevel = Integer.parseInt(params[1]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Bot level not a number");
+            }
+        }
+        server.create(new CreateGameRequest(gameName, authToken, botLevel));
+        if (botLevel != null) {
+            return "Created game against the computer: " + gameName;
+        }
         return "Created game: " + gameName;
     }
 
-    public String list() throws RuntimeException {
-        var result = server.list(authToken);
-        gameList = (ArrayList<GameData>) result;
+    public String list(String... params) throws RuntimeException {
+        Boolean open = null;
+        String player = null;
+        Boolean finished = null;
+        for (var filter : params) {
+            switch (filter) {
+                case "open" -> open = true;
+                case "mine" -> player = username;
+                case "finished" -> finished = true;
+                case "active" -> finished = false;
+                default -> throw new RuntimeException("Expected: [open|mine|finished|active]");
+            }
+        }
+        listing = new ListGamesRequest(authToken, null, null, open, player, finished);
+        return showPage(listing);
+    }
+
+    public String next() throws RuntimeException {
+        if (listing == null || nextCursor == null) {
+            return "No more games";
+        }
+        return showPage(new ListGamesRequest(authToken, nextCursor, listing.limit(), listing.open(),
+                listing.player(), listing.finished()));
+    }
+
+    private String showPage(ListGamesRequest request) {
+        var page = server.list(request);
+        var result = page.games();
+        nextCursor = page.nextCursor();
+        gameList = new ArrayList<>(result);
         StringBuilder games = new StringBuilder();
+        if (result.isEmpty()) {
+            games.append("No games\n");
+        }
         int i = 1;
         for (var game : result) {
             games.append("Game ");
@@ -156,6 +207,9 @@ public class ChessClient {
             games.append("\n");
             i++;
         }
+        if (nextCursor != null) {
+            games.append("More games: type next\n");
+        }
         return games.toString();
     }
 
@@ -260,6 +314,41 @@ public class ChessClient {
         return "";
     }
 
+    public String analyze(String... params) {
+        Integer depth = null;
+        if (params.length > 0) {
+            try {
+                depth = Integer.parseInt(params[0]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Depth not a number");
+            }
+        }
+        ws.analyze(authToken, currentGameId, depth);
+        return "Analyzing...";
+    }
+
+    static String describe(Analysis analysis) {
+        String score;
+        if (analysis.mateIn() != null) {
+            score = String.format("%s mates in %d", analysis.mateIn() > 0 ? "White" : "Black",
+                    Math.abs(analysis.mateIn()));
+        } else {
+            score = String.format("%+.2f", analysis.score() / 100.0);
+        }
+        if (analysis.bestMove() == null) {
+            return String.format("Depth %d: %s, no moves", analysis.depth(), score);
+        }
+        var line = new StringBuilder();
+        for (var move : analysis.principalVariation()) {
+            line.append(' ').append(move.getStartPosition()).append(move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                line.append('=').append(move.getPromotionPiece().toString().toLowerCase());
+            }
+        }
+        return String.format("Depth %d: %s, best %s%s, line%s", analysis.depth(), score,
+                analysis.bestMove().getStartPosition(), analysis.bestMove().getEndPosition(), line);
+    }
+
     public String highlight(String... params) {
         if (params.length < 1) {
             throw new RuntimeException("Expected: <Position>");
@@ -5,6 +5,7 @@ package client;
 import chess.ChessMove;
 import chess.ChessPosition;
 import client.websocket.NotificationHandler;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessages;
 import websocket.messages.NotificationMessage;
@@ -59,6 +60,10 @@ public class Repl implements NotificationHandler {
             ErrorMessage msg = (ErrorMessage) notification;
             System.out.println("Error: " + msg.getErrorMessage());
         }
+        if (type.equals(ServerMessage.ServerMessageType.ANALYSIS)) {
+            AnalysisMessage msg = (AnalysisMessage) notification;
+            System.out.println(ChessClient.describe(msg.getAnalysis()));
+        }
         printPrompt();
     }
 }
@@ -1,10 +1,13 @@
 package client.websocket;
 
+import chess.ChessJson;
 import chess.ChessMove;
 import com.google.gson.Gson;
 import chess.ResponseException;
+import websocket.commands.AnalyzeCommand;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessages;
 import websocket.messages.NotificationMessage;
@@ -20,7 +23,7 @@ public class WebSocketFacade extends Endpoint {
 
     Session session;
     NotificationHandler notificationHandler;
-    private final Gson serializer = new Gson();
+    private final Gson serializer = ChessJson.gson();
 
     public WebSocketFacade(String url, NotificationHandler notificationHandler) {
         try {
@@ -45,6 +48,9 @@ public class WebSocketFacade extends Endpoint {
                     if (notification.getServerMessageType().equals(ServerMessage.ServerMessageType.NOTIFICATION)) {
                         notificationHandler.notify(serializer.fromJson(message, NotificationMessage.class));
                     }
+                    if (notification.getServerMessageType().equals(ServerMessage.ServerMessageType.ANALYSIS)) {
+                        notificationHandler.notify(serializer.fromJson(message, AnalysisMessage.class));
+                    }
                 }
             });
         } catch (DeploymentException | IOException | URISyntaxException ex) {
@@ -84,6 +90,15 @@ public class WebSocketFacade extends Endpoint {
         }
     }
 
+    public void analyze(String authToken, int gameID, Integer depth) {
+        try {
+            var action = new AnalyzeCommand(UserGameCommand.CommandType.ANALYZE, authToken, gameID, depth);
+            this.session.getBasicRemote().sendText(serializer.toJson(action));
+        } catch (IOException ex) {
+            throw new RuntimeException(ex.getMessage());
+        }
+    }
+
     public void makeMove(String authToken, int gameID, ChessMove move) {
         try {
             var action = new MakeMoveCommand(UserGameCommand.CommandType.MAKE_MOVE, authToken, gameID, move);
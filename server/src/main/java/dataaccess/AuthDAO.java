@@ -9,5 +9,15 @@ public interface AuthDAO {
 
     void deleteAuth(String authToken) throws DataAccessException;
 
+    /**
+     * Deletes tokens that have outlived the store's token lifetime. Stores whose
+     * tokens never expire do nothing.
+     *
+     * @return the number of tokens deleted
+     */
+    default int deleteExpired() throws DataAccessException {
+        return 0;
+    }
+
     void clear() throws DataAccessException;
 }
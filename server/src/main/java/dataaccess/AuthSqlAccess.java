@@ -3,12 +3,30 @@ package dataaccess;
 import model.AuthData;
 
 import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
 
+/**
+ * Tokens expire lifetimeSeconds after they are created. Expired tokens are no longer
+ * returned by {@link #getAuth}, and are deleted when the first new one is created and
+ * at most once an hour after that, so the table does not grow forever.
+ */
 public class AuthSqlAccess implements AuthDAO {
+    public static final long DEFAULT_LIFETIME_SECONDS = TimeUnit.DAYS.toSeconds(1);
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final long lifetimeSeconds;
+    private final AtomicLong lastPurge = new AtomicLong(System.nanoTime() - PURGE_INTERVAL_NANOS);
+
     public AuthSqlAccess() throws DataAccessException {
+        this(DEFAULT_LIFETIME_SECONDS);
+    }
+
+    public AuthSqlAccess(long lifetimeSeconds) throws DataAccessException {
+        this.lifetimeSeconds = lifetimeSeconds;
         configureDatabase();
     }
 
@@ -16,14 +34,19 @@ public class AuthSqlAccess implements AuthDAO {
     public void createAuth(AuthData a) throws DataAccessException {
         var statement = "INSERT INTO auth (authToken, username) VALUES(?, ?)";
         SqlUtils.executeUpdate(statement, a.authToken(), a.username());
+        long last = lastPurge.get();
+        if (System.nanoTime() - last > PURGE_INTERVAL_NANOS && lastPurge.compareAndSet(last, System.nanoTime())) {
+            deleteExpired();
+        }
     }
 
     @Override
     public AuthData getAuth(String authToken) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT authToken, username FROM auth WHERE authToken = ?";
+            var statement = "SELECT authToken, username FROM auth WHERE authToken = ? AND created > NOW() - INTERVAL ? SECOND";
             try (var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.setString(1, authToken);
+                preparedStatement.setLong(2, lifetimeSeconds);
                 try (var rs = preparedStatement.executeQuery()) {
                     if (rs.next()) {
                         var username = rs.getString("username");
@@ -43,6 +66,19 @@ public class AuthSqlAccess implements AuthDAO {
         SqlUtils.executeUpdate(statement, authToken);
     }
 
+    @Override
+    public int deleteExpired() throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "DELETE FROM auth WHERE created <= NOW() - INTERVAL ? SECOND";
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.setLong(1, lifetimeSeconds);
+                return preparedStatement.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("unable to delete expired tokens: %s", e.getMessage()));
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         var statement = "DELETE FROM auth";
@@ -54,10 +90,14 @@ public class AuthSqlAccess implements AuthDAO {
             CREATE TABLE  IF NOT EXISTS auth (
                 authToken VARCHAR(255) NOT NULL,
                 username VARCHAR(255) NOT NULL,
+                created TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
                 PRIMARY KEY (authToken),
+                INDEX auth_created (created),
                 FOREIGN KEY (username) REFERENCES user(username) ON DELETE CASCADE
             )""";
 
         SqlUtils.configureDatabase(createUserTable);
+        SqlUtils.addColumnIfMissing("auth", "created", "TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP");
+        SqlUtils.addIndexIfMissing("auth", "auth_created", "created");
 }
 }
@@ -0,0 +1,125 @@
+package dataaccess;
+
+import model.AuthData;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers recent token lookups in front of a slower store, since nearly every
+ * request and WebSocket command starts with one.
+ * <p>
+ * A token that was found is remembered for ttlMillis, and one that was not for
+ * negativeTtlMillis, so a client retrying with a bad token does not reach the store
+ * every time either. Logging out replaces the entry with a miss at once, so a deleted
+ * token stops working immediately; a token that expires in the store may still be
+ * accepted for up to ttlMillis. At most maxEntries tokens are kept: past that, expired
+ * entries are dropped first and then arbitrary ones, which is cheaper than keeping
+ * the entries in order on every lookup.
+ */
+public class CachingAuthDAO implements AuthDAO {
+
+    /*
+     * auth is null for a token the store did not have
+     */
+    private record Cached(AuthData auth, long expires) {
+    }
+
+    private final AuthDAO delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Keeps up to 10,000 tokens, found ones for a minute and missing ones for five seconds
+     */
+    public CachingAuthDAO(AuthDAO delegate) {
+        this(delegate, 10_000, 60_000, 5_000);
+    }
+
+    public CachingAuthDAO(AuthDAO delegate, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+    }
+
+    @Override
+    public void createAuth(AuthData a) throws DataAccessException {
+        delegate.createAuth(a);
+        put(a.authToken(), a);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return null;
+        }
+        var cached = cache.get(authToken);
+        if (cached != null) {
+            if (System.nanoTime() - cached.expires() < 0) {
+                return cached.auth();
+            }
+            cache.remove(authToken, cached);
+        }
+        var auth = delegate.getAuth(authToken);
+        /*
+         * putIfAbsent, so a logout that lands while the store was being read is not
+         * overwritten by the token it just deleted
+         */
+        long ttl = auth == null ? negativeTtlNanos : ttlNanos;
+        if (cache.putIfAbsent(authToken, new Cached(auth, System.nanoTime() + ttl)) == null) {
+            trim();
+        }
+        return auth;
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        put(authToken, null);
+        delegate.deleteAuth(authToken);
+    }
+
+    @Override
+    public int deleteExpired() throws DataAccessException {
+        return delegate.deleteExpired();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        delegate.clear();
+        cache.clear();
+    }
+
+    private void put(String authToken, AuthData auth) {
+        long ttl = auth == null ? negativeTtlNanos : ttlNanos;
+        cache.put(authToken, new Cached(auth, System.nanoTime() + ttl));
+        trim();
+    }
+
+    /**
+     * Brings the cache back under maxEntries, or down to nine tenths of it once expired
+     * entries alone are not enough, so a full cache is not swept on every insert
+     */
+    private void trim() {
+        if (cache.size() <= maxEntries) {
+            return;
+        }
+        long now = System.nanoTime();
+        cache.values().removeIf(cached -> now - cached.expires() >= 0);
+        var keys = cache.keySet().iterator();
+        int target = maxEntries - maxEntries / 10;
+        while (cache.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * @return the number of tokens remembered, found or not
+     */
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,305 @@
+package dataaccess;
+
+import chess.ChessMove;
+import model.GameData;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps games that are being played in memory in front of a slower store, and writes
+ * their moves back behind the players.
+ * <p>
+ * The cached copy of a game is the authoritative one while it is cached. Reads are
+ * answered from memory, and each caller gets its own copy of the game to change.
+ * A move made with {@link #appendMove} only updates the cache and is queued; a
+ * background thread hands each game's queued moves to the store every flushMillis
+ * with {@link GameDAO#appendMoves}, so a burst of moves goes out as one write and
+ * the store is never waited on between moves. A move that ends the game is written
+ * before appendMove returns, so a finished game is never lost. Seat changes,
+ * resignations and anything else that goes through {@link #updateGame} are rare and
+ * are written straight through, after the game's queued moves, so the game list is
+ * always current.
+ * <p>
+ * A move is only taken if it was made on the position the cache holds, and an update
+ * only changes the seats or ends the game, so a caller that read the game before
+ * someone else moved, resigned or took a seat cannot undo what they did.
+ * <p>
+ * If the server stops without {@link #close}, moves made in the last flush interval
+ * of an unfinished game are lost. A failed write leaves the moves queued to be tried
+ * again on the next pass. Games with nothing queued are dropped from memory once no
+ * one has touched them for idleMillis.
+ */
+public class CachingGameDAO implements GameDAO, AutoCloseable {
+
+    private record PendingMove(GameData after, ChessMove move) {
+    }
+
+    private static final class Entry {
+        private GameData data;
+        private final ArrayDeque<PendingMove> pending = new ArrayDeque<>();
+        private long lastUsed = System.nanoTime();
+        private boolean evicted = false;
+
+        private Entry(GameData data) {
+            this.data = data;
+        }
+    }
+
+    private final GameDAO delegate;
+    private final long idleNanos;
+    private final ConcurrentHashMap<Integer, Entry> cache = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Flushes every 200 ms and keeps idle games for ten minutes
+     */
+    public CachingGameDAO(GameDAO delegate) {
+        this(delegate, 200, 600_000);
+    }
+
+    public CachingGameDAO(GameDAO delegate, long flushMillis, long idleMillis) {
+        this.delegate = delegate;
+        this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "game-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public int createGame(String gameName, Integer botLevel) throws DataAccessException {
+        return delegate.createGame(gameName, botLevel);
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        var entry = cache.get(gameID);
+        if (entry == null) {
+            var loaded = delegate.getGame(gameID);
+            if (loaded == null) {
+                return null;
+            }
+            var fresh = new Entry(copyOf(loaded));
+            var existing = cache.putIfAbsent(gameID, fresh);
+            entry = existing != null ? existing : fresh;
+        }
+        synchronized (entry) {
+            if (entry.evicted) {
+                return getGame(gameID);
+            }
+            entry.lastUsed = System.nanoTime();
+            return copyOf(entry.data);
+        }
+    }
+
+    /**
+     * Lists the games from the store. Only moves are written behind, and a move that
+     * ends a game is written at once, so the list is never out of date.
+     */
+    @Override
+    public Collection<GameData> listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public List<GameData> listGames(GameQuery query) throws DataAccessException {
+        return delegate.listGames(query);
+    }
+
+    /**
+     * Writes a seat change or the end of a game through. Moves only come in through
+     * {@link #appendMove}, so the position is kept as the cache has it, and gameOver
+     * can be set but not cleared; a caller holding a copy from before the last move
+     * cannot take it back.
+     */
+    @Override
+    public void updateGame(GameData u) throws DataAccessException {
+        while (true) {
+            var entry = cache.get(u.gameID());
+            if (entry == null) {
+                if (getGame(u.gameID()) == null) {
+                    delegate.updateGame(u);
+                    return;
+                }
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                flush(entry);
+                var game = entry.data.game().copy();
+                game.gameOver = game.gameOver || u.game() != null && u.game().gameOver;
+                var merged = new GameData(u.gameID(), u.whiteUsername(), u.blackUsername(), u.gameName(), game,
+                        u.botLevel());
+                delegate.updateGame(merged);
+                entry.data = copyOf(merged);
+                entry.lastUsed = System.nanoTime();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues the move to be written, or writes it and everything queued before it at
+     * once if it ended the game. Only the position is taken from u; the seats are
+     * kept as the cache has them.
+     *
+     * @throws DataAccessException with status 409 if the game is over or u was not
+     *                             one move ahead of the cached game when the move was made,
+     *                             or the store's error if a game-ending move could not be
+     *                             written, in which case the cache is left without the move
+     */
+    @Override
+    public void appendMove(GameData u, ChessMove move) throws DataAccessException {
+        while (true) {
+            var entry = cache.get(u.gameID());
+            if (entry == null) {
+                if (getGame(u.gameID()) == null) {
+                    throw new DataAccessException(400, "Error: bad request");
+                }
+                continue;
+            }
+            synchronized (entry) {
+                if (entry.evicted) {
+                    continue;
+                }
+                var cached = entry.data;
+                if (cached.game().gameOver) {
+                    throw new DataAccessException(409, "Error: game is over");
+                }
+                if (cached.game().getPly() != u.game().getPly() - 1) {
+                    throw new DataAccessException(409, "Error: game has moved on");
+                }
+                var after = new GameData(cached.gameID(), cached.whiteUsername(), cached.blackUsername(),
+                        cached.gameName(), u.game().copy(), cached.botLevel());
+                entry.data = after;
+                entry.pending.addLast(new PendingMove(after, move));
+                entry.lastUsed = System.nanoTime();
+                if (after.game().gameOver) {
+                    try {
+                        flush(entry);
+                    } catch (DataAccessException e) {
+                        entry.pending.removeLast();
+                        entry.data = cached;
+                        throw e;
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        var entry = cache.get(gameID);
+        if (entry != null) {
+            synchronized (entry) {
+                flush(entry);
+            }
+        }
+        return delegate.getMoves(gameID);
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        for (var entry : cache.values()) {
+            synchronized (entry) {
+                entry.pending.clear();
+                entry.evicted = true;
+            }
+        }
+        cache.clear();
+        delegate.clear();
+    }
+
+    /**
+     * Writes every queued move now, and drops games that have been idle too long
+     *
+     * @throws DataAccessException if a game could not be written; the others still are
+     */
+    public void flush() throws DataAccessException {
+        DataAccessException failure = null;
+        long now = System.nanoTime();
+        for (var entry : cache.values()) {
+            synchronized (entry) {
+                try {
+                    flush(entry);
+                } catch (DataAccessException e) {
+                    failure = e;
+                    continue;
+                }
+                if (!entry.evicted && now - entry.lastUsed > idleNanos) {
+                    entry.evicted = true;
+                    cache.remove(entry.data.gameID(), entry);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            System.out.println("Writing games failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands a game's queued moves to the store in one write, with the game as it stood
+     * after the last of them. The caller holds the entry's lock. The moves are only
+     * taken off the queue once they have been written.
+     */
+    private void flush(Entry entry) throws DataAccessException {
+        if (entry.pending.isEmpty()) {
+            return;
+        }
+        var moves = entry.pending.stream().map(PendingMove::move).toList();
+        delegate.appendMoves(entry.pending.peekLast().after(), moves);
+        entry.pending.clear();
+    }
+
+    /**
+     * @return the number of moves waiting to be written
+     */
+    public int pendingMoves() {
+        int count = 0;
+        for (var entry : cache.values()) {
+            synchronized (entry) {
+                count += entry.pending.size();
+            }
+        }
+        return count;
+    }
+
+    private static GameData copyOf(GameData data) {
+        var game = data.game() == null ? null : data.game().copy();
+        return new GameData(data.gameID(), data.whiteUsername(), data.blackUsername(), data.gameName(), game,
+                data.botLevel());
+    }
+
+    /**
+     * Stops the background writer and writes whatever is still queued
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+}
@@ -0,0 +1,211 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A small bounded pool of JDBC connections.
+ * <p>
+ * At most maxSize connections are open or lent out at once; a caller that finds them
+ * all in use waits up to maxWaitMillis and then gets an SQLException. Callers use the
+ * connection as usual and close it, which hands it back to the pool instead of closing
+ * it. Free connections are reused newest first, so the oldest ones sit idle and are
+ * closed once they have been idle longer than idleTimeoutMillis. A connection that has
+ * been idle for more than a second is checked with {@link Connection#isValid} before
+ * it is lent out, since the check costs a round trip to the server.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATE_AFTER_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    /**
+     * Opens a new physical connection
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * @param active    connections lent out right now
+     * @param idle      open connections waiting to be lent out
+     * @param created   connections opened since the pool started
+     * @param borrowed  times a connection was lent out
+     * @param discarded connections closed because they were idle too long or failed validation
+     * @param timeouts  callers that gave up waiting for a connection
+     */
+    public record Stats(int active, int idle, long created, long borrowed, long discarded, long timeouts) {
+    }
+
+    private record IdleConnection(Connection connection, long since) {
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutNanos;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private volatile boolean closed = false;
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long maxWaitMillis, long idleTimeoutMillis) {
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /**
+     * Lends out a connection. Closing it returns it to the pool.
+     *
+     * @throws SQLException if no connection freed up within the wait time, or a new one
+     *                      could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                timeouts.incrementAndGet();
+                throw new SQLException(String.format("No database connection free after %d ms", maxWaitMillis));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted waiting for a database connection", e);
+        }
+        try {
+            var connection = take();
+            borrowed.incrementAndGet();
+            return lend(connection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection take() throws SQLException {
+        long now = System.nanoTime();
+        IdleConnection next;
+        while ((next = idle.pollFirst()) != null) {
+            long idleFor = now - next.since();
+            if (idleFor > idleTimeoutNanos) {
+                discard(next.connection());
+            } else if (idleFor > VALIDATE_AFTER_NANOS && !isValid(next.connection())) {
+                discard(next.connection());
+            } else {
+                return next.connection();
+            }
+        }
+        var connection = factory.open();
+        created.incrementAndGet();
+        return connection;
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection lend(Connection connection) {
+        var returned = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        if (returned.compareAndSet(false, true)) {
+                            giveBack(connection);
+                        }
+                        yield null;
+                    }
+                    case "isClosed" -> returned.get() || connection.isClosed();
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Pooled " + connection;
+                    default -> {
+                        if (returned.get()) {
+                            throw new SQLException("Connection already returned to the pool");
+                        }
+                        try {
+                            yield method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+
+    private void giveBack(Connection connection) {
+        try {
+            if (closed || connection.isClosed()) {
+                discard(connection);
+                return;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            idle.offerFirst(new IdleConnection(connection, System.nanoTime()));
+        } catch (SQLException e) {
+            discard(connection);
+        } finally {
+            permits.release();
+            evictIdle();
+        }
+    }
+
+    /**
+     * Closes connections at the old end of the idle list that have sat unused too long
+     */
+    private void evictIdle() {
+        long now = System.nanoTime();
+        IdleConnection oldest;
+        while ((oldest = idle.peekLast()) != null && now - oldest.since() > idleTimeoutNanos) {
+            if (idle.removeLastOccurrence(oldest)) {
+                discard(oldest.connection());
+            }
+        }
+    }
+
+    private void discard(Connection connection) {
+        discarded.incrementAndGet();
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // it is being thrown away either way
+        }
+    }
+
+    public Stats stats() {
+        int idleCount = idle.size();
+        return new Stats(maxSize - permits.availablePermits(), idleCount, created.get(), borrowed.get(),
+                discarded.get(), timeouts.get());
+    }
+
+    /**
+     * Closes the idle connections now, and the ones lent out as they are returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection next;
+        while ((next = idle.pollFirst()) != null) {
+            discard(next.connection());
+        }
+    }
+}
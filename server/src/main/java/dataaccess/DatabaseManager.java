@@ -8,6 +8,7 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool POOL;
 
     /*
      * Load the database information for the db.properties file.
@@ -26,7 +27,12 @@ public class DatabaseManager {
 
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
-                CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+                CONNECTION_URL = String.format("jdbc:mysql://%s:%d?rewriteBatchedStatements=true", host, port);
+
+                var poolSize = Integer.parseInt(props.getProperty("db.pool.size", "10"));
+                var maxWaitMillis = Long.parseLong(props.getProperty("db.pool.maxWaitMillis", "5000"));
+                var idleTimeoutMillis = Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", "600000"));
+                POOL = new ConnectionPool(DatabaseManager::openConnection, poolSize, maxWaitMillis, idleTimeoutMillis);
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -39,8 +45,8 @@ public class DatabaseManager {
     static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -49,10 +55,12 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the pool, with the catalog set based
+     * upon the properties specified in db.properties. Connections to the database should
+     * be short-lived, and you must close the connection when you are done with it, which
+     * returns it to the pool. The easiest way to do that is with a try-with-resource block.
+     * The pool's size, wait time and idle timeout can be set with db.pool.size,
+     * db.pool.maxWaitMillis and db.pool.idleTimeoutMillis.
      * <br/>
      * <code>
      * try (var conn = DbInfo.getConnection(databaseName)) {
@@ -62,11 +70,22 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
+            return POOL.getConnection();
         } catch (SQLException e) {
             throw new DataAccessException(400, e.getMessage());
         }
     }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+        conn.setCatalog(DATABASE_NAME);
+        return conn;
+    }
+
+    /**
+     * @return how many connections are in use and idle, and counts of what the pool has done
+     */
+    public static ConnectionPool.Stats poolStats() {
+        return POOL.stats();
+    }
 }
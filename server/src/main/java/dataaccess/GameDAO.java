@@ -1,17 +1,60 @@
 package dataaccess;
 
+import chess.ChessMove;
 import model.GameData;
 
 import java.util.Collection;
+import java.util.List;
 
 public interface GameDAO {
-    int createGame(String gameName) throws DataAccessException;
+    default int createGame(String gameName) throws DataAccessException {
+        return createGame(gameName, null);
+    }
+
+    /**
+     * @param botLevel the computer opponent's level, or null for a game between people
+     */
+    int createGame(String gameName, Integer botLevel) throws DataAccessException;
 
     GameData getGame(int gameID) throws DataAccessException;
 
     Collection<GameData> listGames() throws DataAccessException;
 
+    /**
+     * Lists one page of games, without their boards
+     *
+     * @return at most query.limit() games matching the query, in gameID order
+     */
+    List<GameData> listGames(GameQuery query) throws DataAccessException;
+
     void updateGame(GameData u) throws DataAccessException;
 
+    /**
+     * Records a move that has just been made on the game. Stores that keep a move log
+     * write only the move here rather than the whole game.
+     *
+     * @param u    the game with the move already made
+     * @param move the move
+     */
+    default void appendMove(GameData u, ChessMove move) throws DataAccessException {
+        updateGame(u);
+    }
+
+    /**
+     * Records several moves just made in a row on one game, as one write where the
+     * store can do that
+     *
+     * @param u     the game with all the moves already made
+     * @param moves the moves, in the order played
+     */
+    default void appendMoves(GameData u, List<ChessMove> moves) throws DataAccessException {
+        updateGame(u);
+    }
+
+    /**
+     * @return every move recorded with {@link #appendMove} for a game, in the order played
+     */
+    List<ChessMove> getMoves(int gameID) throws DataAccessException;
+
     void clear() throws DataAccessException;
 }
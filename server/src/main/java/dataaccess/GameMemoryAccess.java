@@ -1,21 +1,26 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class GameMemoryAccess implements GameDAO{
     private int nextId = 1234;
-    final private HashMap<Integer, GameData> data = new HashMap<>();
+    final private ConcurrentHashMap<Integer, GameData> data = new ConcurrentHashMap<>();
+    final private ConcurrentHashMap<Integer, List<ChessMove>> moves = new ConcurrentHashMap<>();
 
     @Override
-    public int createGame(String gameName) throws DataAccessException {
+    public synchronized int createGame(String gameName, Integer botLevel) throws DataAccessException {
         int gameID = nextId;
         nextId++;
-        var gameData = new GameData(gameID, null, null, gameName, new ChessGame());
+        var gameData = new GameData(gameID, null, null, gameName, new ChessGame(), botLevel);
         data.put(gameID, gameData);
         return gameID;
     }
@@ -32,19 +37,49 @@ public class GameMemoryAccess implements GameDAO{
     public Collection<GameData> listGames() throws DataAccessException {
         var gameList = new ArrayList<GameData>();
         for (var gameData : data.values()) {
-            gameList.add(new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), null));
+            gameList.add(new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(), gameData.gameName(), null,
+                    gameData.botLevel()));
         }
         return gameList;
     }
 
+    @Override
+    public List<GameData> listGames(GameQuery query) throws DataAccessException {
+        return data.values().stream()
+                .filter(gameData -> gameData.gameID() > query.afterGameID() && query.matches(gameData))
+                .sorted(Comparator.comparingInt(GameData::gameID))
+                .limit(query.limit())
+                .map(gameData -> new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(),
+                        gameData.gameName(), null, gameData.botLevel()))
+                .toList();
+    }
 
     @Override
     public void updateGame(GameData u) throws DataAccessException {
         data.put(u.gameID(), u);
     }
 
+    @Override
+    public void appendMove(GameData u, ChessMove move) throws DataAccessException {
+        data.put(u.gameID(), u);
+        moves.computeIfAbsent(u.gameID(), id -> new CopyOnWriteArrayList<>()).add(move);
+    }
+
+    @Override
+    public void appendMoves(GameData u, List<ChessMove> moves) throws DataAccessException {
+        data.put(u.gameID(), u);
+        moves.forEach(move -> this.moves.computeIfAbsent(u.gameID(), id -> new CopyOnWriteArrayList<>()).add(move));
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        var list = moves.get(gameID);
+        return list == null ? List.of() : List.copyOf(list);
+    }
+
     @Override
     public void clear() throws DataAccessException {
         data.clear();
+        moves.clear();
     }
 }
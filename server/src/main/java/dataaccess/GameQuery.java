@@ -0,0 +1,35 @@
+package dataaccess;
+
+import model.GameData;
+
+/**
+ * One page of a game listing. Games come back in gameID order, starting after
+ * afterGameID, so the last gameID of a page is the cursor for the next one.
+ *
+ * @param afterGameID only games with a larger gameID; 0 for the first page
+ * @param limit       the most games to return
+ * @param open        if true, only games a person can still join
+ * @param player      if not null, only games this user has a seat in
+ * @param finished    if not null, only games that are over (true) or still going (false)
+ */
+public record GameQuery(int afterGameID, int limit, boolean open, String player, Boolean finished) {
+
+    public static GameQuery firstPage(int limit) {
+        return new GameQuery(0, limit, false, null, null);
+    }
+
+    /**
+     * @return whether a game belongs in this listing, ignoring the page bounds
+     */
+    public boolean matches(GameData gameData) {
+        var white = gameData.whiteUsername();
+        var black = gameData.blackUsername();
+        if (open && (gameData.botLevel() == null ? white != null && black != null : white != null || black != null)) {
+            return false;
+        }
+        if (player != null && !player.equals(white) && !player.equals(black)) {
+            return false;
+        }
+        return finished == null || finished == (gameData.game() != null && gameData.game().gameOver);
+    }
+}
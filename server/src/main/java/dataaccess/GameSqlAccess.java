@@ -1,11 +1,17 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessJson;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import model.AuthData;
 import model.GameData;
 import service.requests.RegisterRequest;
 
+import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -14,24 +20,37 @@ import java.util.List;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
 
+/**
+ * Stores games in MySQL. A game's position is kept as FEN, with the keys of recent
+ * positions needed to spot repetitions and whether the game is over alongside it,
+ * so loading a game parses well under a hundred bytes. Rows written before the fen
+ * column existed hold the game as JSON, and are converted when the server starts.
+ * <p>
+ * Moves are appended to the game_move table, one small row each, and the position
+ * in the game row is only a snapshot, rewritten about every {@value #SNAPSHOT_INTERVAL}
+ * moves, when the game ends or when the row is updated for any other reason. Loading
+ * a game replays the moves played since its snapshot.
+ */
 public class GameSqlAccess implements GameDAO {
-    private final Gson serializer = new Gson();
+    static final int SNAPSHOT_INTERVAL = 20;
+
+    private final Gson serializer = ChessJson.gson();
 
     public GameSqlAccess() throws DataAccessException {
         configureDatabase();
     }
 
     @Override
-    public int createGame(String gameName) throws DataAccessException {
-        var statement = "INSERT INTO game (gameName, game) VALUES(?, ?)";
-        var game = serializer.toJson(new ChessGame(), ChessGame.class);
-        return SqlUtils.executeUpdate(statement, gameName, game);
+    public int createGame(String gameName, Integer botLevel) throws DataAccessException {
+        var statement = "INSERT INTO game (gameName, fen, gameOver, botLevel) VALUES(?, ?, ?, ?)";
+        return SqlUtils.executeUpdate(statement, gameName, new ChessGame().toFen(), false, botLevel);
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT whiteUsername, blackUsername, gameName, game FROM game WHERE gameID = ?";
+            var statement = "SELECT whiteUsername, blackUsername, gameName, game, fen, history, gameOver, botLevel "
+                    + "FROM game WHERE gameID = ?";
             try (var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.setInt(1, gameID);
                 try (var rs = preparedStatement.executeQuery()) {
@@ -39,9 +58,18 @@ public class GameSqlAccess implements GameDAO {
                         var whiteUsername = rs.getString("whiteUsername");
                         var blackUsername = rs.getString("blackUsername");
                         var gameName = rs.getString("gameName");
-                        var game = rs.getString("game");
-                        var gameObject = serializer.fromJson(game, ChessGame.class);
-                        return new GameData(gameID, whiteUsername, blackUsername, gameName, gameObject);
+                        var fen = rs.getString("fen");
+                        var botLevel = rs.getObject("botLevel", Integer.class);
+                        ChessGame gameObject;
+                        if (fen != null) {
+                            gameObject = ChessGame.fromFen(fen);
+                            gameObject.setPositionHistory(readHistory(rs.getString("history")));
+                            gameObject.gameOver = rs.getBoolean("gameOver");
+                        } else {
+                            gameObject = serializer.fromJson(rs.getString("game"), ChessGame.class);
+                        }
+                        replayMoves(conn, gameID, gameObject);
+                        return new GameData(gameID, whiteUsername, blackUsername, gameName, gameObject, botLevel);
                     }
                 }
             }
@@ -55,7 +83,7 @@ public class GameSqlAccess implements GameDAO {
     public Collection<GameData> listGames() throws DataAccessException {
         var allGames = new ArrayList<GameData>();
         try (var conn = DatabaseManager.getConnection()) {
-            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName FROM game";
+            var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, botLevel FROM game";
             try (var preparedStatement = conn.prepareStatement(statement)) {
                 try (var rs = preparedStatement.executeQuery()) {
                     while (rs.next()) {
@@ -63,7 +91,8 @@ public class GameSqlAccess implements GameDAO {
                         var whiteUsername = rs.getString("whiteUsername");
                         var blackUsername = rs.getString("blackUsername");
                         var gameName = rs.getString("gameName");
-                        allGames.add(new GameData(gameID, whiteUsername, blackUsername, gameName, null));
+                        var botLevel = rs.getObject("botLevel", Integer.class);
+                        allGames.add(new GameData(gameID, whiteUsername, blackUsername, gameName, null, botLevel));
                     }
                 }
             }
@@ -73,15 +102,184 @@ public class GameSqlAccess implements GameDAO {
         return allGames;
     }
 
+    /**
+     * Pages through games by primary key. The seat filter is run as one indexed
+     * query per seat, merged, since MySQL will not use two indexes for an OR and
+     * still stop after the first page.
+     */
+    @Override
+    public List<GameData> listGames(GameQuery query) throws DataAccessException {
+        var conditions = new StringBuilder("gameID > ?");
+        var params = new ArrayList<Object>();
+        params.add(query.afterGameID());
+        if (query.open()) {
+            conditions.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)"
+                    + " AND (botLevel IS NULL OR (whiteUsername IS NULL AND blackUsername IS NULL))");
+        }
+        if (query.finished() != null) {
+            conditions.append(" AND gameOver = ?");
+            params.add(query.finished());
+        }
+        var select = "SELECT gameID, whiteUsername, blackUsername, gameName, botLevel FROM game WHERE ";
+        String statement;
+        var allParams = new ArrayList<Object>();
+        if (query.player() == null) {
+            statement = select + conditions + " ORDER BY gameID LIMIT ?";
+            allParams.addAll(params);
+        } else {
+            statement = "(" + select + "whiteUsername = ? AND " + conditions + " ORDER BY gameID LIMIT ?) UNION ("
+                    + select + "blackUsername = ? AND " + conditions + " ORDER BY gameID LIMIT ?) ORDER BY gameID LIMIT ?";
+            for (int i = 0; i < 2; i++) {
+                allParams.add(query.player());
+                allParams.addAll(params);
+                allParams.add(query.limit());
+            }
+        }
+        allParams.add(query.limit());
+
+        var games = new ArrayList<GameData>();
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                for (int i = 0; i < allParams.size(); i++) {
+                    preparedStatement.setObject(i + 1, allParams.get(i));
+                }
+                try (var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        games.add(new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                                rs.getString("blackUsername"), rs.getString("gameName"), null,
+                                rs.getObject("botLevel", Integer.class)));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("unable to list games: %s", e.getMessage()));
+        }
+        return games;
+    }
+
+    private static void replayMoves(Connection conn, int gameID, ChessGame game)
+            throws SQLException, InvalidMoveException {
+        if (game.gameOver) {
+            return;
+        }
+        var statement = "SELECT move FROM game_move WHERE gameID = ? AND ply >= ? ORDER BY ply";
+        try (var preparedStatement = conn.prepareStatement(statement)) {
+            preparedStatement.setInt(1, gameID);
+            preparedStatement.setInt(2, game.getPly());
+            try (var rs = preparedStatement.executeQuery()) {
+                boolean replayed = false;
+                while (rs.next()) {
+                    game.makeMove(Move.toChessMove(rs.getInt("move")));
+                    replayed = true;
+                }
+                if (replayed && game.getStatus().isFinal()) {
+                    game.gameOver = true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void appendMove(GameData u, ChessMove move) throws DataAccessException {
+        appendMoves(u, List.of(move));
+    }
+
+    /**
+     * Inserts the moves as one multi-row insert, and rewrites the snapshot in the same
+     * transaction if the game ended or the moves passed a multiple of
+     * {@value #SNAPSHOT_INTERVAL}
+     *
+     * @throws DataAccessException with status 409, writing nothing, if a move is already
+     *                             stored at one of the plies, as when two writers both
+     *                             moved from the same position
+     */
+    @Override
+    public void appendMoves(GameData u, List<ChessMove> moves) throws DataAccessException {
+        if (moves.isEmpty()) {
+            return;
+        }
+        var game = u.game();
+        int firstPly = game.getPly() - moves.size();
+        var rows = new ArrayList<Object[]>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            rows.add(new Object[]{u.gameID(), firstPly + i, Move.encode(moves.get(i))});
+        }
+        boolean snapshot = game.gameOver || game.getPly() / SNAPSHOT_INTERVAL != firstPly / SNAPSHOT_INTERVAL;
+        SqlUtils.inTransaction(conn -> {
+            var statement = "INSERT INTO game_move (gameID, ply, move) VALUES(?, ?, ?)";
+            SqlUtils.executeBatch(conn, statement, rows);
+            if (snapshot) {
+                var update = "UPDATE game SET game = NULL, fen = ?, history = ?, gameOver = ? WHERE gameID = ?";
+                try (var preparedStatement = conn.prepareStatement(update)) {
+                    SqlUtils.setParams(preparedStatement, game.toFen(), writeHistory(game.getPositionHistory()),
+                            game.gameOver, u.gameID());
+                    preparedStatement.executeUpdate();
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        var moves = new ArrayList<ChessMove>();
+        try (var conn = DatabaseManager.getConnection()) {
+            var statement = "SELECT move FROM game_move WHERE gameID = ? ORDER BY ply";
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.setInt(1, gameID);
+                try (var rs = preparedStatement.executeQuery()) {
+                    while (rs.next()) {
+                        moves.add(Move.toChessMove(rs.getInt("move")));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException(500, String.format("Unable to read moves: %s", e.getMessage()));
+        }
+        return moves;
+    }
+
     @Override
     public void updateGame(GameData u) throws DataAccessException {
-        var statement = "UPDATE game SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
-        var game = serializer.toJson(u.game(), ChessGame.class);
-        SqlUtils.executeUpdate(statement, u.whiteUsername(), u.blackUsername(), u.gameName(), game, u.gameID());
+        var statement = "UPDATE game SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = NULL, fen = ?, "
+                + "history = ?, gameOver = ? WHERE gameID = ?";
+        var game = u.game();
+        SqlUtils.executeUpdate(statement, u.whiteUsername(), u.blackUsername(), u.gameName(), game.toFen(),
+                writeHistory(game.getPositionHistory()), game.gameOver, u.gameID());
+    }
+
+    /**
+     * @return the keys as space-separated hex, or null if there are none
+     */
+    static String writeHistory(long[] keys) {
+        if (keys.length == 0) {
+            return null;
+        }
+        var history = new StringBuilder(keys.length * 17);
+        for (long key : keys) {
+            if (!history.isEmpty()) {
+                history.append(' ');
+            }
+            history.append(Long.toHexString(key));
+        }
+        return history.toString();
+    }
+
+    static long[] readHistory(String history) {
+        if (history == null || history.isEmpty()) {
+            return new long[0];
+        }
+        var tokens = history.split(" ");
+        var keys = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            keys[i] = Long.parseUnsignedLong(tokens[i], 16);
+        }
+        return keys;
     }
 
     @Override
     public void clear() throws DataAccessException {
+        SqlUtils.executeUpdate("DELETE FROM game_move");
         var statement = "DELETE FROM game";
         SqlUtils.executeUpdate(statement);
     }
@@ -94,11 +292,88 @@ public class GameSqlAccess implements GameDAO {
                 blackUsername VARCHAR(255) DEFAULT NULL,
                 gameName VARCHAR(255) DEFAULT NULL,
                 game TEXT DEFAULT NULL,
+                fen VARCHAR(100) DEFAULT NULL,
+                history TEXT DEFAULT NULL,
+                gameOver BOOLEAN NOT NULL DEFAULT FALSE,
+                botLevel INT DEFAULT NULL,
                 PRIMARY KEY (gameID),
                 FOREIGN KEY (whiteUsername) REFERENCES user(username) ON DELETE CASCADE,
                 FOREIGN KEY (blackUsername) REFERENCES user(username) ON DELETE CASCADE
             )""";
 
             SqlUtils.configureDatabase(createUserTable);
+            SqlUtils.addColumnIfMissing("game", "botLevel", "INT DEFAULT NULL");
+            SqlUtils.addColumnIfMissing("game", "fen", "VARCHAR(100) DEFAULT NULL");
+            SqlUtils.addColumnIfMissing("game", "history", "TEXT DEFAULT NULL");
+            SqlUtils.addColumnIfMissing("game", "gameOver", "BOOLEAN NOT NULL DEFAULT FALSE");
+            SqlUtils.addIndexIfMissing("game", "game_white", "whiteUsername, gameID");
+            SqlUtils.addIndexIfMissing("game", "game_black", "blackUsername, gameID");
+            SqlUtils.addIndexIfMissing("game", "game_over", "gameOver, gameID");
+
+            var createMoveTable = """
+            CREATE TABLE IF NOT EXISTS game_move (
+                gameID INT NOT NULL,
+                ply INT NOT NULL,
+                move INT NOT NULL,
+                created TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                PRIMARY KEY (gameID, ply),
+                FOREIGN KEY (gameID) REFERENCES game(gameID) ON DELETE CASCADE
+            )""";
+            SqlUtils.configureDatabase(createMoveTable);
+            convertLegacyGames();
 }
+
+    /**
+     * Rewrites games an older server stored as JSON in the current format, so the
+     * gameOver column the game list filters on is right for them too. Rows are read
+     * and written {@value SqlUtils#BATCH_SIZE} at a time, and a row that cannot be
+     * parsed is logged and left as it is.
+     */
+    private void convertLegacyGames() throws DataAccessException {
+        var update = "UPDATE game SET game = NULL, fen = ?, history = ?, gameOver = ? WHERE gameID = ? AND fen IS NULL";
+        var statement = "SELECT gameID, game FROM game WHERE fen IS NULL AND game IS NOT NULL AND gameID > ? "
+                + "ORDER BY gameID LIMIT ?";
+        int afterGameID = 0;
+        int read;
+        do {
+            var rows = new ArrayList<Object[]>();
+            read = 0;
+            try (var conn = DatabaseManager.getConnection()) {
+                try (var preparedStatement = conn.prepareStatement(statement)) {
+                    SqlUtils.setParams(preparedStatement, afterGameID, SqlUtils.BATCH_SIZE);
+                    try (var rs = preparedStatement.executeQuery()) {
+                        while (rs.next()) {
+                            read++;
+                            afterGameID = rs.getInt("gameID");
+                            var game = readLegacyGame(afterGameID, rs.getString("game"));
+                            if (game != null) {
+                                rows.add(new Object[]{game.toFen(), writeHistory(game.getPositionHistory()),
+                                        game.gameOver, afterGameID});
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                throw new DataAccessException(500, String.format("Unable to configure database: %s", e.getMessage()));
+            }
+            SqlUtils.executeBatch(update, rows);
+        } while (read == SqlUtils.BATCH_SIZE);
+    }
+
+    /**
+     * @return the game, or null if the JSON could not be read
+     */
+    private ChessGame readLegacyGame(int gameID, String json) {
+        try {
+            var game = serializer.fromJson(json, ChessGame.class);
+            if (game == null) {
+                throw new JsonParseException("empty game");
+            }
+            game.gameOver = game.gameOver || game.getStatus().isFinal();
+            return game;
+        } catch (RuntimeException e) {
+            System.out.println("Could not convert game " + gameID + ", leaving it as JSON: " + e.getMessage());
+            return null;
+        }
+    }
 }
@@ -1,11 +1,17 @@
 package dataaccess;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.List;
 
+import static java.sql.Statement.NO_GENERATED_KEYS;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
 
 public class SqlUtils {
+    static final int BATCH_SIZE = 1_000;
+    private static final int DUPLICATE_KEY = 1062;
 
     public static void configureDatabase(String createStatement) throws DataAccessException {
         DatabaseManager.createDatabase();
@@ -29,32 +35,183 @@ public class SqlUtils {
 
     }
 
-    public static int executeUpdate(String statement, Object... params) throws DataAccessException {
+    /**
+     * Adds a column to a table created by an older version of the server, whose
+     * CREATE TABLE IF NOT EXISTS statement left it out.
+     *
+     * @param definition the column type and options, e.g. "INT DEFAULT NULL"
+     */
+    public static void addColumnIfMissing(String table, String column, String definition) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
-            try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
-                for (var i = 0; i < params.length; i++) {
-                    var param = params[i];
-                    if (param instanceof String p) {
-                        ps.setString(i + 1, p);
-                    }
-                    else if (param instanceof Integer p) {
-                        ps.setInt(i + 1, p);
-                    }
-                    else if (param == null) {
-                        ps.setNull(i + 1, NULL);
-                    }
+            try (var rs = conn.getMetaData().getColumns(conn.getCatalog(), null, table, column)) {
+                if (rs.next()) {
+                    return;
                 }
-                ps.executeUpdate();
+            }
+            var statement = String.format("ALTER TABLE %s ADD COLUMN %s %s", table, column, definition);
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(500, String.format("Unable to configure database: %s", ex.getMessage()));
+        }
+    }
 
-                var rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
+    /**
+     * Adds an index to a table created by an older version of the server
+     *
+     * @param columns the indexed columns, e.g. "gameOver, gameID"
+     */
+    public static void addIndexIfMissing(String table, String index, String columns) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, table, false, false)) {
+                while (rs.next()) {
+                    if (index.equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                        return;
+                    }
                 }
+            }
+            var statement = String.format("CREATE INDEX %s ON %s (%s)", index, table, columns);
+            try (var preparedStatement = conn.prepareStatement(statement)) {
+                preparedStatement.executeUpdate();
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(500, String.format("Unable to configure database: %s", ex.getMessage()));
+        }
+    }
 
+    /**
+     * Runs one statement. Only INSERT statements ask the driver for generated keys,
+     * since fetching them costs a round trip.
+     *
+     * @return the first generated key of an INSERT, otherwise 0
+     */
+    public static int executeUpdate(String statement, Object... params) throws DataAccessException {
+        boolean insert = statement.stripLeading().regionMatches(true, 0, "INSERT", 0, 6);
+        try (var conn = DatabaseManager.getConnection()) {
+            try (var ps = conn.prepareStatement(statement, insert ? RETURN_GENERATED_KEYS : NO_GENERATED_KEYS)) {
+                setParams(ps, params);
+                ps.executeUpdate();
+                if (!insert) {
+                    return 0;
+                }
+                try (var rs = ps.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
                 return 0;
             }
         } catch (SQLException e) {
             throw new DataAccessException(500, String.format("unable to update database: %s, %s", statement, e.getMessage()));
         }
     }
+
+    /**
+     * Runs one statement for each set of parameters, as JDBC batches of up to
+     * {@value #BATCH_SIZE} in a single transaction, so either every row is written or
+     * none is. The connection URL turns on rewriteBatchedStatements, so the driver
+     * sends each batch of an INSERT as one multi-row INSERT.
+     *
+     * @return the number of rows changed by each set of parameters
+     */
+    public static int[] executeBatch(String statement, List<Object[]> rows) throws DataAccessException {
+        if (rows.isEmpty()) {
+            return new int[0];
+        }
+        return inTransaction(conn -> executeBatch(conn, statement, rows));
+    }
+
+    /**
+     * Batches a statement on a connection the caller already has, for use inside
+     * {@link #inTransaction}
+     */
+    public static int[] executeBatch(Connection conn, String statement, List<Object[]> rows) throws SQLException {
+        var counts = new int[rows.size()];
+        try (var ps = conn.prepareStatement(statement, NO_GENERATED_KEYS)) {
+            for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+                int end = Math.min(rows.size(), start + BATCH_SIZE);
+                for (int i = start; i < end; i++) {
+                    setParams(ps, rows.get(i));
+                    ps.addBatch();
+                }
+                var batch = ps.executeBatch();
+                System.arraycopy(batch, 0, counts, start, batch.length);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Work done on one connection inside a transaction
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Runs work on one connection and commits it, or rolls everything back if it throws
+     *
+     * @throws DataAccessException with status 409 if the work wrote a row whose key is
+     *                             already taken, otherwise 500
+     */
+    public static <T> T inTransaction(Work<T> work) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                var result = work.run(conn);
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            if (isDuplicateKey(e)) {
+                throw new DataAccessException(409, String.format("Error: already stored: %s", e.getMessage()));
+            }
+            throw new DataAccessException(500, String.format("unable to update database: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * @return whether MySQL refused a row because its key is already taken; a failed
+     * batch reports the error of the statement that caused it as its cause
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sql && sql.getErrorCode() == DUPLICATE_KEY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Binds parameters to a statement. Strings, integers, longs, booleans and nulls
+     * are supported.
+     */
+    static void setParams(PreparedStatement ps, Object... params) throws SQLException {
+        for (var i = 0; i < params.length; i++) {
+            var param = params[i];
+            if (param instanceof String p) {
+                ps.setString(i + 1, p);
+            }
+            else if (param instanceof Integer p) {
+                ps.setInt(i + 1, p);
+            }
+            else if (param instanceof Long p) {
+                ps.setLong(i + 1, p);
+            }
+            else if (param instanceof Boolean p) {
+                ps.setBoolean(i + 1, p);
+            }
+            else if (param == null) {
+                ps.setNull(i + 1, NULL);
+            }
+        }
+    }
 }
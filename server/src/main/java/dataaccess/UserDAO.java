@@ -2,11 +2,23 @@ package dataaccess;
 
 import model.UserData;
 
+import java.util.Collection;
+
 public interface UserDAO {
     void clear() throws DataAccessException;
 
     void createUser(UserData u) throws DataAccessException;
 
+    /**
+     * Creates many users at once, e.g. to load test data. Stores that can write them
+     * in one go do so.
+     */
+    default void createUsers(Collection<UserData> users) throws DataAccessException {
+        for (var user : users) {
+            createUser(user);
+        }
+    }
+
     UserData getUser(String username) throws DataAccessException;
 
 }
@@ -3,6 +3,8 @@ package dataaccess;
 import model.UserData;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.sql.Types.NULL;
@@ -27,6 +29,20 @@ public class UserSqlAccess implements UserDAO{
         SqlUtils.executeUpdate(statement, u.username(), u.password(), u.email());
     }
 
+    /**
+     * Inserts the users as multi-row inserts in one transaction, so none are created
+     * if any username is taken
+     */
+    @Override
+    public void createUsers(Collection<UserData> users) throws DataAccessException {
+        var statement = "INSERT INTO user (username, password, email) VALUES(?, ?, ?)";
+        var rows = new ArrayList<Object[]>(users.size());
+        for (var u : users) {
+            rows.add(new Object[]{u.username(), u.password(), u.email()});
+        }
+        SqlUtils.executeBatch(statement, rows);
+    }
+
     @Override
     public UserData getUser(String username) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
@@ -1,23 +1,29 @@
 package server;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import dataaccess.*;
 import server.websocket.WebSocketHandler;
+import service.AnalysisService;
 import service.GameService;
 import service.requests.*;
 import service.UserService;
 import spark.*;
 
+import java.util.concurrent.CompletionException;
+
 public class Server {
     UserDAO userAccess;
-    GameDAO gameAccess;
+    CachingGameDAO gameAccess;
     AuthDAO authAccess;
+    WebSocketHandler webSocketHandler;
+    AnalysisService analysisService;
 
     public int run(int desiredPort) {
         try {
             userAccess = new UserSqlAccess();
-            gameAccess = new GameSqlAccess();
-            authAccess = new AuthSqlAccess();
+            gameAccess = new CachingGameDAO(new GameSqlAccess());
+            authAccess = new CachingAuthDAO(new AuthSqlAccess());
         } catch (DataAccessException e) {
             throw new RuntimeException(e);
         }
@@ -25,11 +31,13 @@ public class Server {
         UserService userService = new UserService(userAccess, authAccess);
         GameService gameService = new GameService(gameAccess, authAccess);
 
-        WebSocketHandler webSocketHandler = new WebSocketHandler(userAccess, gameAccess, authAccess);
+        analysisService = new AnalysisService(gameAccess, authAccess);
+
+        webSocketHandler = new WebSocketHandler(userAccess, gameAccess, authAccess, analysisService);
 
         Spark.webSocket("/ws", webSocketHandler);
 
-        var serializer = new Gson();
+        var serializer = ChessJson.gson();
 
         Spark.port(desiredPort);
 
@@ -38,6 +46,7 @@ public class Server {
         // Register your endpoints and handle exceptions here.
 
         endpoints(serializer, userService, gameService);
+        analysisEndpoints(serializer, analysisService);
 
 
         //This line initializes the server and can be removed once you have a functioning endpoint
@@ -92,12 +101,18 @@ public class Server {
         Spark.get("/game", (request, response) -> {
             try {
                 String authToken = request.headers("authorization");
-                var listGamesRequest = new ListGamesRequest(authToken);
+                var listGamesRequest = new ListGamesRequest(authToken, intParam(request, "cursor"),
+                        intParam(request, "limit"), booleanParam(request, "open"), request.queryParams("player"),
+                        booleanParam(request, "finished"));
                 ListGamesResult listGamesResult = gameService.listGames(listGamesRequest);
                 response.body(serializer.toJson(listGamesResult));
                 System.out.println(serializer.toJson(listGamesResult));
                 return response.body();
             }
+            catch (IllegalArgumentException ex) {
+                errorHandling(new DataAccessException(400, "Error: invalid request"), request, response);
+                return response.body();
+            }
             catch (DataAccessException ex) {
                 errorHandling(ex, request, response);
                 return response.body();
@@ -107,7 +122,8 @@ public class Server {
         Spark.post("/game", (request, response) -> {
             try {
                 var tempRequest = serializer.fromJson(request.body(), CreateGameRequest.class);
-                var createGameRequest = new CreateGameRequest(tempRequest.gameName(), request.headers("authorization"));
+                var createGameRequest = new CreateGameRequest(tempRequest.gameName(), request.headers("authorization"),
+                        tempRequest.botLevel());
                 CreateGameResult createGameResult = gameService.createGame(createGameRequest);
                 response.body(serializer.toJson(createGameResult));
                 System.out.println(serializer.toJson(createGameResult));
@@ -148,6 +164,55 @@ public class Server {
         });
     }
 
+    private void analysisEndpoints(Gson serializer, AnalysisService analysisService) {
+        Spark.get("/game/analysis", (request, response) -> {
+            try {
+                String authToken = request.headers("authorization");
+                var analysisRequest = new AnalysisRequest(Integer.parseInt(request.queryParams("gameID")),
+                        request.queryParams("depth") == null ? null : Integer.parseInt(request.queryParams("depth")),
+                        authToken);
+                var analysis = analysisService.analyze(analysisRequest);
+                if (!analysis.isDone()) {
+                    response.status(202);
+                    response.body("{\"message\": \"analysis queued, try again shortly\" }");
+                    return response.body();
+                }
+                response.body(serializer.toJson(analysis.join()));
+                return response.body();
+            }
+            catch (NumberFormatException ex) {
+                errorHandling(new DataAccessException(400, "Error: invalid request"), request, response);
+                return response.body();
+            }
+            catch (CompletionException ex) {
+                var cause = ex.getCause() instanceof DataAccessException dataEx ? dataEx
+                        : new DataAccessException(500, "Error: analysis failed");
+                errorHandling(cause, request, response);
+                return response.body();
+            }
+            catch (DataAccessException ex) {
+                errorHandling(ex, request, response);
+                return response.body();
+            }
+        });
+    }
+
+    private static Integer intParam(Request request, String name) {
+        var value = request.queryParams(name);
+        return value == null ? null : Integer.parseInt(value);
+    }
+
+    private static Boolean booleanParam(Request request, String name) {
+        var value = request.queryParams(name);
+        if (value == null) {
+            return null;
+        }
+        if (!value.equals("true") && !value.equals("false")) {
+            throw new IllegalArgumentException("Not a boolean: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
     public void errorHandling(DataAccessException ex, Request req, Response res) {
         res.status(ex.getStatus());
         String message = ex.getMessage();
@@ -157,6 +222,15 @@ public class Server {
     }
 
     public void stop() {
+        if (webSocketHandler != null) {
+            webSocketHandler.close();
+        }
+        if (analysisService != null) {
+            analysisService.close();
+        }
+        if (gameAccess != null) {
+            gameAccess.close();
+        }
         Spark.stop();
         Spark.awaitStop();
     }
@@ -0,0 +1,162 @@
+package server.websocket;
+
+import chess.InvalidMoveException;
+import chess.search.Search;
+import chess.search.TranspositionTable;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.BotLevel;
+import model.GameData;
+import websocket.messages.LoadGameMessages;
+import websocket.messages.NotificationMessage;
+import websocket.messages.ServerMessage;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays the computer's moves in bot games on a fixed pool of engine threads, so
+ * searching never ties up the threads that handle WebSocket messages.
+ * <p>
+ * Each game has at most one job queued or running. A request for a game that
+ * already has one only marks it to run once more when it finishes, so no move is
+ * missed and one busy game cannot flood the queue. Jobs run in the order games asked,
+ * and every job ends within its level's time budget, so thousands of games share the
+ * pool fairly. When the queue is full new requests are refused rather than waited on.
+ */
+public class BotScheduler implements AutoCloseable {
+
+    private static final int TABLE_MEGABYTES = 16;
+
+    private final GameDAO gameAccess;
+    private final ConnectionManager connections;
+    private final ThreadPoolExecutor pool;
+    /*
+     * Games with a job queued or running. The value is true if another request
+     * came in after the job was queued.
+     */
+    private final ConcurrentHashMap<Integer, Boolean> jobs = new ConcurrentHashMap<>();
+    private final ThreadLocal<Search> searches =
+            ThreadLocal.withInitial(() -> new Search(new TranspositionTable(TABLE_MEGABYTES)));
+
+    /**
+     * Uses one engine thread per processor but one, and queues up to 10,000 games
+     */
+    public BotScheduler(GameDAO gameAccess, ConnectionManager connections) {
+        this(gameAccess, connections, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 10_000);
+    }
+
+    public BotScheduler(GameDAO gameAccess, ConnectionManager connections, int threads, int queueCapacity) {
+        this.gameAccess = gameAccess;
+        this.connections = connections;
+        var count = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    var thread = new Thread(runnable, "bot-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * Asks for the computer to move in a game if it is its turn. Returns immediately.
+     *
+     * @return false if the queue is full and the request was dropped
+     */
+    public boolean requestMove(int gameID) {
+        boolean[] queue = {false};
+        jobs.compute(gameID, (id, again) -> {
+            if (again == null) {
+                queue[0] = true;
+                return Boolean.FALSE;
+            }
+            return Boolean.TRUE;
+        });
+        return !queue[0] || submit(gameID);
+    }
+
+    private boolean submit(int gameID) {
+        try {
+            pool.execute(() -> run(gameID));
+            return true;
+        } catch (RejectedExecutionException e) {
+            jobs.remove(gameID);
+            return false;
+        }
+    }
+
+    private void run(int gameID) {
+        try {
+            play(gameID);
+        } catch (DataAccessException | InvalidMoveException | IOException | RuntimeException e) {
+            System.out.println("Bot move failed for game " + gameID + ": " + e.getMessage());
+        }
+        var again = jobs.compute(gameID, (id, pending) -> Boolean.TRUE.equals(pending) ? Boolean.FALSE : null);
+        if (again != null) {
+            submit(gameID);
+        }
+    }
+
+    private void play(int gameID) throws DataAccessException, InvalidMoveException, IOException {
+        var gameData = gameAccess.getGame(gameID);
+        if (gameData == null || gameData.botLevel() == null) {
+            return;
+        }
+        var game = gameData.game();
+        var botColor = gameData.botColor();
+        var level = BotLevel.of(gameData.botLevel());
+        if (botColor == null || level == null || game.gameOver || game.getTeamTurn() != botColor) {
+            return;
+        }
+        var result = searches.get().search(game, level.getMaxDepth(), level.getMillis());
+        var move = result.bestMove();
+        if (move == null) {
+            return;
+        }
+        game.makeMove(move);
+        if (game.getStatus().isFinal()) {
+            game.gameOver = true;
+        }
+        try {
+            gameAccess.appendMove(gameData, move);
+        } catch (DataAccessException e) {
+            if (e.getStatus() != 409) {
+                throw e;
+            }
+            /*
+             * The game was resigned or moved on while the bot was thinking. The move is
+             * dropped rather than searched again; a new request comes with the next move.
+             */
+            System.out.println("Dropped stale bot move for game " + gameID + ": " + e.getMessage());
+            return;
+        }
+
+        connections.broadcast(null, gameID, new LoadGameMessages(ServerMessage.ServerMessageType.LOAD_GAME, game));
+        var message = String.format("Computer moved %s to %s", move.getStartPosition(), move.getEndPosition());
+        connections.broadcast(null, gameID,
+                new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, message));
+        String checkMessage = WebSocketHandler.checkMessages(game, gameData);
+        if (checkMessage != null) {
+            connections.broadcast(null, gameID,
+                    new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, checkMessage));
+        }
+    }
+
+    /**
+     * @return how many games are waiting for an engine thread
+     */
+    public int queued() {
+        return pool.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
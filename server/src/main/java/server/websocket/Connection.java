@@ -16,6 +16,9 @@ public class Connection {
     }
 
     public void send(String msg) throws IOException {
-        session.getRemote().sendString(msg);
+        // Bot moves are sent from engine threads, so one session can be written from two threads
+        synchronized (session) {
+            session.getRemote().sendString(msg);
+        }
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package server.websocket;
 
+import chess.ChessJson;
 import com.google.gson.Gson;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ServerMessage;
@@ -10,7 +11,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class ConnectionManager {
     public final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>();
-    private final Gson serializer = new Gson();
+    private final Gson serializer = ChessJson.gson();
 
     public void add(String authToken, int gameID, Session session) {
         var connection = new Connection(authToken, gameID, session);
@@ -42,6 +43,9 @@ public class ConnectionManager {
     }
 
     public void messageRoot(Session session, ServerMessage msg) throws IOException {
-        session.getRemote().sendString(serializer.toJson(msg));
+        var json = serializer.toJson(msg);
+        synchronized (session) {
+            session.getRemote().sendString(json);
+        }
     }
 }
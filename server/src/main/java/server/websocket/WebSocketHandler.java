@@ -2,18 +2,24 @@ package server.websocket;
 
 
 import chess.ChessGame;
+import chess.ChessJson;
 import chess.ChessMove;
 import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import dataaccess.*;
 //import exception.ResponseException;
+import model.Analysis;
 import model.AuthData;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import service.AnalysisService;
+import service.requests.AnalysisRequest;
+import websocket.commands.AnalyzeCommand;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessages;
 import websocket.messages.NotificationMessage;
@@ -23,29 +29,52 @@ import java.io.IOException;
 
 
 @WebSocket
-public class WebSocketHandler {
+public class WebSocketHandler implements AutoCloseable {
 
+    private final Gson serializer = ChessJson.gson();
     private final ConnectionManager connections = new ConnectionManager();
     private final UserDAO userAccess;
     private final GameDAO gameAccess;
     private final AuthDAO authAccess;
+    private final BotScheduler bots;
+    private final AnalysisService analysis;
+    private final boolean ownsAnalysis;
 
 
     public WebSocketHandler(UserDAO userAccess, GameDAO gameAccess, AuthDAO authAccess) {
+        this(userAccess, gameAccess, authAccess, null);
+    }
+
+    /**
+     * @param analysis the analysis service to share with the HTTP endpoint, or null for one of its own
+     */
+    public WebSocketHandler(UserDAO userAccess, GameDAO gameAccess, AuthDAO authAccess, AnalysisService analysis) {
         this.userAccess = userAccess;
         this.gameAccess = gameAccess;
         this.authAccess = authAccess;
+        this.bots = new BotScheduler(gameAccess, connections);
+        this.ownsAnalysis = analysis == null;
+        this.analysis = ownsAnalysis ? new AnalysisService(gameAccess, authAccess) : analysis;
+    }
+
+    @Override
+    public void close() {
+        bots.close();
+        if (ownsAnalysis) {
+            analysis.close();
+        }
     }
 
     @OnWebSocketMessage
     public void onMessage(Session session, String message) throws IOException {
         System.out.println(message);
-        UserGameCommand action = new Gson().fromJson(message, UserGameCommand.class);
+        UserGameCommand action = serializer.fromJson(message, UserGameCommand.class);
         switch (action.getCommandType()) {
             case CONNECT -> connect(action.getAuthToken(), action.getGameID(), session);
-            case MAKE_MOVE -> makeMove(new Gson().fromJson(message, MakeMoveCommand.class), session);
+            case MAKE_MOVE -> makeMove(serializer.fromJson(message, MakeMoveCommand.class), session);
             case LEAVE -> leave(action.getAuthToken(), action.getGameID(), session);
             case RESIGN -> resign(action.getAuthToken(), action.getGameID(), session);
+            case ANALYZE -> analyze(serializer.fromJson(message, AnalyzeCommand.class), session);
             default -> connections.messageRoot(session,
                     new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "Invalid Command"));
         }
@@ -84,6 +113,45 @@ public class WebSocketHandler {
         connections.messageRoot(session, loadGame);
         var notification = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, message);
         connections.broadcast(authToken, gameID, notification);
+        if (gameData.botColor() == gameData.game().getTeamTurn()) {
+            requestBotMove(gameID, session);
+        }
+    }
+
+    private void requestBotMove(int gameID, Session session) throws IOException {
+        if (!bots.requestMove(gameID)) {
+            var error = new ErrorMessage(ServerMessage.ServerMessageType.ERROR,
+                    "Computer is busy, reconnect to get its move");
+            connections.messageRoot(session, error);
+        }
+    }
+
+    private void analyze(AnalyzeCommand analyzeCommand, Session session) throws IOException {
+        int gameID = analyzeCommand.getGameID();
+        try {
+            var request = new AnalysisRequest(gameID, analyzeCommand.getDepth(), analyzeCommand.getAuthToken());
+            analysis.analyze(request).whenComplete((result, ex) -> sendAnalysis(session, gameID, result, ex));
+        } catch (DataAccessException e) {
+            var error = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, e.getMessage());
+            connections.messageRoot(session, error);
+        }
+    }
+
+    private void sendAnalysis(Session session, int gameID, Analysis result, Throwable ex) {
+        ServerMessage message;
+        if (ex == null) {
+            message = new AnalysisMessage(ServerMessage.ServerMessageType.ANALYSIS, gameID, result);
+        } else {
+            var cause = ex.getCause() != null ? ex.getCause() : ex;
+            message = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, cause.getMessage());
+        }
+        try {
+            if (session.isOpen()) {
+                connections.messageRoot(session, message);
+            }
+        } catch (IOException e) {
+            System.out.println("Could not send analysis for game " + gameID + ": " + e.getMessage());
+        }
     }
 
     private void leave(String authToken, int gameID, Session session) throws IOException {
@@ -101,10 +169,12 @@ public class WebSocketHandler {
                 return;
             }
             if (gameData.whiteUsername() != null && gameData.whiteUsername().equals(authData.username())) {
-                gameAccess.updateGame(new GameData(gameID, null, gameData.blackUsername(), gameData.gameName(), gameData.game()));
+                gameAccess.updateGame(new GameData(gameID, null, gameData.blackUsername(), gameData.gameName(),
+                        gameData.game(), gameData.botLevel()));
             }
             if (gameData.blackUsername() != null &&gameData.blackUsername().equals(authData.username())) {
-                gameAccess.updateGame(new GameData(gameID, gameData.whiteUsername(), null, gameData.gameName(), gameData.game()));
+                gameAccess.updateGame(new GameData(gameID, gameData.whiteUsername(), null, gameData.gameName(),
+                        gameData.game(), gameData.botLevel()));
             }
         } catch (DataAccessException e) {
             var error = new ErrorMessage(ServerMessage.ServerMessageType.ERROR, "Bad Request");
@@ -154,7 +224,10 @@ public class WebSocketHandler {
                 return;
             }
             game.makeMove(move);
-            gameAccess.updateGame(gameData);
+            if (game.getStatus().isFinal()) {
+                game.gameOver = true;
+            }
+            gameAccess.appendMove(gameData, move);
             message = String.format("%s moved %s to %s", username, move.getStartPosition(), move.getEndPosition());
             var loadGame = new LoadGameMessages(ServerMessage.ServerMessageType.LOAD_GAME, gameData.game());
             connections.messageRoot(session, loadGame);
@@ -176,28 +249,25 @@ public class WebSocketHandler {
         }
         var notification = new NotificationMessage(ServerMessage.ServerMessageType.NOTIFICATION, message);
         connections.broadcast(moveCommand.getAuthToken(), moveCommand.getGameID(), notification);
+        if (!game.gameOver && gameData.botColor() == game.getTeamTurn()) {
+            requestBotMove(moveCommand.getGameID(), session);
+        }
     }
 
-    private String checkMessages(ChessGame game, GameData gameData) {
-        if (game.isInStalemate(ChessGame.TeamColor.WHITE)) {
-            return "Game ends in Stalemate";
-        }
-        if (game.isInStalemate(ChessGame.TeamColor.BLACK)) {
-            return "Game ends in Stalemate";
-        }
-        if (game.isInCheckmate(ChessGame.TeamColor.WHITE)) {
-            return String.format("%s is in checkmate", gameData.whiteUsername());
-        }
-        if (game.isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            return String.format("%s is in checkmate", gameData.blackUsername());
-        }
-        if (game.isInCheck(ChessGame.TeamColor.WHITE)) {
-            return String.format("%s is in check", gameData.whiteUsername());
-        }
-        if (game.isInCheck(ChessGame.TeamColor.BLACK)) {
-            return String.format("%s is in check", gameData.blackUsername());
+    static String checkMessages(ChessGame game, GameData gameData) {
+        var side = game.getTeamTurn();
+        var username = side == ChessGame.TeamColor.WHITE ? gameData.whiteUsername() : gameData.blackUsername();
+        if (side == gameData.botColor()) {
+            username = "Computer";
         }
-        return null;
+        return switch (game.getStatus()) {
+            case STALEMATE -> "Game ends in Stalemate";
+            case THREEFOLD_REPETITION -> "Game ends in a draw by threefold repetition";
+            case FIFTY_MOVE_RULE -> "Game ends in a draw by the fifty-move rule";
+            case CHECKMATE -> String.format("%s is in checkmate", username);
+            case CHECK -> String.format("%s is in check", username);
+            case ONGOING -> null;
+        };
     }
 
 
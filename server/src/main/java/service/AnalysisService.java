@@ -0,0 +1,211 @@
+package service;
+
+import chess.ChessGame;
+import chess.search.Search;
+import chess.search.SearchResult;
+import chess.search.TranspositionTable;
+import dataaccess.AuthDAO;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.Analysis;
+import service.requests.AnalysisRequest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Analyses game positions on a small pool of engine threads, off the threads that
+ * serve HTTP and WebSocket requests.
+ * <p>
+ * Results are cached by position, the positions before it that could still repeat,
+ * and the depth the search actually finished, which is less than the one asked for
+ * when the time budget ran out. A forced mate is cached as if searched to
+ * {@link #MAX_DEPTH}, since the search stops early once it finds one and searching
+ * deeper would not change it. Any cached result at least as deep as the one asked
+ * for is used as is. Viewers of the same game tend to ask about
+ * the same position at once, so while a position is being analysed every other
+ * request for it waits on the same job instead of starting another.
+ */
+public class AnalysisService implements AutoCloseable {
+
+    public static final int DEFAULT_DEPTH = 6;
+    public static final int MAX_DEPTH = 10;
+    private static final long DEFAULT_MAX_MILLIS = 5_000;
+    private static final int TABLE_MEGABYTES = 16;
+
+    /*
+     * history is a hash of the game's position history, which decides whether a line
+     * ends in a draw by repetition
+     */
+    private record Key(long positionKey, int history, int depth) {
+    }
+
+    private final GameDAO gameAccess;
+    private final AuthDAO authAccess;
+    private final ThreadPoolExecutor pool;
+    private final long maxMillis;
+    private final Map<Key, Analysis> cache;
+    private final ConcurrentHashMap<Key, CompletableFuture<Analysis>> running = new ConcurrentHashMap<>();
+    private final ThreadLocal<Search> searches =
+            ThreadLocal.withInitial(() -> new Search(new TranspositionTable(TABLE_MEGABYTES)));
+
+    /**
+     * Uses two engine threads, queues up to 1,000 positions and caches 10,000 results
+     */
+    public AnalysisService(GameDAO gameAccess, AuthDAO authAccess) {
+        this(gameAccess, authAccess, 2, 1_000, 10_000);
+    }
+
+    public AnalysisService(GameDAO gameAccess, AuthDAO authAccess, int threads, int queueCapacity,
+                           int cacheCapacity) {
+        this(gameAccess, authAccess, threads, queueCapacity, cacheCapacity, DEFAULT_MAX_MILLIS);
+    }
+
+    /**
+     * @param maxMillis the most time one analysis may take; a search cut short by it is
+     *                  reported and cached at the depth it finished
+     */
+    public AnalysisService(GameDAO gameAccess, AuthDAO authAccess, int threads, int queueCapacity,
+                           int cacheCapacity, long maxMillis) {
+        this.gameAccess = gameAccess;
+        this.maxMillis = maxMillis;
+        this.authAccess = authAccess;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Analysis> eldest) {
+                return size() > cacheCapacity;
+            }
+        };
+        var count = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    var thread = new Thread(runnable, "analysis-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts analysing the current position of a game, or joins an analysis of it that
+     * is already running. Returns immediately; the future is already complete when the
+     * result was cached, and fails with a 503 DataAccessException when the queue is full.
+     *
+     * @throws DataAccessException if the request is invalid, unauthorized or names no game
+     */
+    public CompletableFuture<Analysis> analyze(AnalysisRequest analysisRequest) throws DataAccessException {
+        if (analysisRequest.authToken() == null) {
+            throw new DataAccessException(400, "Error: invalid request");
+        }
+        var depth = analysisRequest.depth() == null ? DEFAULT_DEPTH : analysisRequest.depth();
+        if (depth < 1 || depth > MAX_DEPTH) {
+            throw new DataAccessException(400, "Error: invalid depth");
+        }
+        var authData = authAccess.getAuth(analysisRequest.authToken());
+        if (authData == null) {
+            throw new DataAccessException(401, "Error: unauthorized");
+        }
+        var gameData = gameAccess.getGame(analysisRequest.gameID());
+        if (gameData == null) {
+            throw new DataAccessException(400, "Error: no such gameID");
+        }
+        return analyze(gameData.game(), depth);
+    }
+
+    /**
+     * Analyses a position to the given depth, sharing cached and running results
+     */
+    public CompletableFuture<Analysis> analyze(ChessGame game, int depth) {
+        var key = key(game, depth);
+        var cached = cached(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        var copy = game.copy();
+        boolean[] started = {false};
+        var future = running.computeIfAbsent(key, k -> {
+            started[0] = true;
+            return new CompletableFuture<>();
+        });
+        if (started[0]) {
+            submit(key, copy, future);
+        }
+        return future;
+    }
+
+    private void submit(Key key, ChessGame game, CompletableFuture<Analysis> future) {
+        try {
+            pool.execute(() -> run(key, game, future));
+        } catch (RejectedExecutionException e) {
+            running.remove(key);
+            future.completeExceptionally(new DataAccessException(503, "Error: analysis is busy, try again later"));
+        }
+    }
+
+    private void run(Key key, ChessGame game, CompletableFuture<Analysis> future) {
+        try {
+            // another request may have finished this position between the cache check and the queue
+            var analysis = cached(key);
+            if (analysis == null) {
+                var result = searches.get().search(game, key.depth(), maxMillis);
+                analysis = toAnalysis(key.positionKey(), game.getTeamTurn(), result);
+                if (result.depth() > 0) {
+                    // a forced mate is the answer at every depth, and the search stops once it finds one
+                    int depth = result.isMate() ? MAX_DEPTH : result.depth();
+                    synchronized (cache) {
+                        cache.put(new Key(key.positionKey(), key.history(), depth), analysis);
+                    }
+                }
+            }
+            running.remove(key);
+            future.complete(analysis);
+        } catch (RuntimeException e) {
+            running.remove(key);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static Key key(ChessGame game, int depth) {
+        return new Key(game.getPositionKey(), Arrays.hashCode(game.getPositionHistory()), depth);
+    }
+
+    /**
+     * @return a cached result for the game's position at least as deep as depth, or null
+     */
+    Analysis cached(ChessGame game, int depth) {
+        return cached(key(game, depth));
+    }
+
+    private Analysis cached(Key key) {
+        synchronized (cache) {
+            for (int depth = key.depth(); depth <= MAX_DEPTH; depth++) {
+                var analysis = cache.get(new Key(key.positionKey(), key.history(), depth));
+                if (analysis != null) {
+                    return analysis;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Analysis toAnalysis(long positionKey, ChessGame.TeamColor toMove, SearchResult result) {
+        int sign = toMove == ChessGame.TeamColor.WHITE ? 1 : -1;
+        int score = result.score() * sign;
+        Integer mateIn = result.isMate() ? Integer.signum(score) * result.movesToMate() : null;
+        return new Analysis(positionKey, result.depth(), score, mateIn, result.bestMove(),
+                result.principalVariation());
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+}
@@ -1,11 +1,15 @@
 package service;
 
 import dataaccess.*;
+import model.BotLevel;
 import model.GameData;
 import service.requests.*;
 
 
 public class GameService {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+
     private final GameDAO gameAccess;
     private final AuthDAO authAccess;
 
@@ -18,16 +22,31 @@ public class GameService {
         gameAccess.clear();
     }
 
+    /**
+     * Lists one page of games, {@value #DEFAULT_PAGE_SIZE} unless the request asks for
+     * another size up to {@value #MAX_PAGE_SIZE}. nextCursor is set when there may be more.
+     */
     public ListGamesResult listGames(ListGamesRequest listGamesRequest) throws DataAccessException{
         if (listGamesRequest.authToken() == null) {
             throw new DataAccessException(400, "Error: invalid request");
         }
+        var cursor = listGamesRequest.cursor() == null ? 0 : listGamesRequest.cursor();
+        var limit = listGamesRequest.limit() == null ? DEFAULT_PAGE_SIZE : listGamesRequest.limit();
+        if (cursor < 0 || limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new DataAccessException(400, "Error: invalid request");
+        }
         var authData = authAccess.getAuth(listGamesRequest.authToken());
         if (authData == null) {
             throw new DataAccessException(401, "Error: unauthorized");
         }
-        var data = gameAccess.listGames();
-        return new ListGamesResult(data);
+        var query = new GameQuery(cursor, limit + 1, Boolean.TRUE.equals(listGamesRequest.open()),
+                listGamesRequest.player(), listGamesRequest.finished());
+        var data = gameAccess.listGames(query);
+        if (data.size() <= limit) {
+            return new ListGamesResult(data);
+        }
+        var page = data.subList(0, limit);
+        return new ListGamesResult(page, page.get(limit - 1).gameID());
     }
 
     public CreateGameResult createGame(CreateGameRequest createGameRequest) throws DataAccessException{
@@ -38,7 +57,11 @@ public class GameService {
         if (authData == null) {
             throw new DataAccessException(401, "Error: unauthorized");
         }
-        var gameID = gameAccess.createGame(createGameRequest.gameName());
+        var botLevel = createGameRequest.botLevel();
+        if (botLevel != null && BotLevel.of(botLevel) == null) {
+            throw new DataAccessException(400, "Error: invalid bot level");
+        }
+        var gameID = gameAccess.createGame(createGameRequest.gameName(), botLevel);
         return new CreateGameResult(gameID);
     }
 
@@ -61,14 +84,17 @@ public class GameService {
         if (gameData == null) {
             throw new DataAccessException(400, "Error: no such gameID");
         }
+        if (gameData.botLevel() != null && (gameData.whiteUsername() != null || gameData.blackUsername() != null)) {
+            throw new DataAccessException(403, "Error: color taken");
+        }
         GameData updatedGameData;
         if (joinGameRequest.playerColor().equals("WHITE") && gameData.whiteUsername() == null) {
             updatedGameData = new GameData(gameData.gameID(), username,
-                    gameData.blackUsername(), gameData.gameName(), gameData.game());
+                    gameData.blackUsername(), gameData.gameName(), gameData.game(), gameData.botLevel());
         }
         else if (joinGameRequest.playerColor().equals("BLACK") && gameData.blackUsername() == null) {
             updatedGameData = new GameData(gameData.gameID(), gameData.whiteUsername(),
-                    username, gameData.gameName(), gameData.game());
+                    username, gameData.gameName(), gameData.game(), gameData.botLevel());
         }
         else {
             throw new DataAccessException(403, "Error: color taken");
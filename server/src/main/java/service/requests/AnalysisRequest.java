@@ -0,0 +1,4 @@
+package service.requests;
+
+public record AnalysisRequest(int gameID, Integer depth, String authToken) {
+}
@@ -1,4 +1,7 @@
 package service.requests;
 
-public record CreateGameRequest(String gameName, String authToken) {
+public record CreateGameRequest(String gameName, String authToken, Integer botLevel) {
+    public CreateGameRequest(String gameName, String authToken) {
+        this(gameName, authToken, null);
+    }
 }
@@ -1,4 +1,18 @@
 package service.requests;
 
-public record ListGamesRequest(String authToken) {
+/**
+ * Asks for one page of games. Every field but authToken may be null.
+ *
+ * @param cursor   the nextCursor of the previous page, or null for the first page
+ * @param limit    the most games to return
+ * @param open     true for only games a person can still join
+ * @param player   only games this user has a seat in
+ * @param finished true for only finished games, false for only unfinished ones
+ */
+public record ListGamesRequest(String authToken, Integer cursor, Integer limit, Boolean open, String player,
+                               Boolean finished) {
+
+    public ListGamesRequest(String authToken) {
+        this(authToken, null, null, null, null, null);
+    }
 }
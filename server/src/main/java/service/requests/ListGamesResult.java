@@ -4,5 +4,12 @@ import model.GameData;
 
 import java.util.Collection;
 
-public record ListGamesResult(Collection<GameData> games) {
+/**
+ * @param nextCursor the cursor for the next page, or null if this is the last one
+ */
+public record ListGamesResult(Collection<GameData> games, Integer nextCursor) {
+
+    public ListGamesResult(Collection<GameData> games) {
+        this(games, null);
+    }
 }
@@ -0,0 +1,71 @@
+package dataaccess;
+
+import model.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingAuthDAOTests {
+
+    private static class CountingAuthAccess extends AuthMemoryAccess {
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public AuthData getAuth(String authToken) throws DataAccessException {
+            reads.incrementAndGet();
+            return super.getAuth(authToken);
+        }
+    }
+
+    @Test
+    @DisplayName("Tokens are remembered, found or not")
+    public void remembersLookups() throws DataAccessException {
+        var store = new CountingAuthAccess();
+        var cache = new CachingAuthDAO(store, 100, 60_000, 60_000);
+        cache.createAuth(new AuthData("token", "user"));
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals("user", cache.getAuth("token").username());
+            Assertions.assertNull(cache.getAuth("bad"));
+        }
+        Assertions.assertEquals(1, store.reads.get(), "Lookups reached the store");
+        Assertions.assertNull(cache.getAuth(null));
+    }
+
+    @Test
+    @DisplayName("Logging out takes effect at once")
+    public void deleteInvalidates() throws DataAccessException {
+        var store = new CountingAuthAccess();
+        var cache = new CachingAuthDAO(store, 100, 60_000, 60_000);
+        cache.createAuth(new AuthData("token", "user"));
+        Assertions.assertNotNull(cache.getAuth("token"));
+        cache.deleteAuth("token");
+        Assertions.assertNull(cache.getAuth("token"), "Deleted token still accepted");
+        Assertions.assertNull(store.getAuth("token"));
+
+        cache.createAuth(new AuthData("other", "user"));
+        cache.clear();
+        Assertions.assertNull(cache.getAuth("other"), "Cleared token still accepted");
+    }
+
+    @Test
+    @DisplayName("Entries expire and the cache is bounded")
+    public void expiresAndBounded() throws DataAccessException, InterruptedException {
+        var store = new CountingAuthAccess();
+        var cache = new CachingAuthDAO(store, 10, 50, 20);
+        store.createAuth(new AuthData("token", "user"));
+        Assertions.assertNull(cache.getAuth("missing"));
+        Assertions.assertNotNull(cache.getAuth("token"));
+        Thread.sleep(80);
+        store.deleteAuth("token");
+        store.createAuth(new AuthData("missing", "user"));
+        Assertions.assertNull(cache.getAuth("token"), "Expired entry used");
+        Assertions.assertNotNull(cache.getAuth("missing"), "Expired miss used");
+
+        for (int i = 0; i < 100; i++) {
+            cache.getAuth("bad-" + i);
+        }
+        Assertions.assertTrue(cache.size() <= 10, "Cache grew to " + cache.size());
+    }
+}
@@ -0,0 +1,229 @@
+package dataaccess;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CachingGameDAOTests {
+
+    private static class CountingGameAccess extends GameMemoryAccess {
+        final AtomicInteger reads = new AtomicInteger();
+        final AtomicInteger appends = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+        volatile boolean failing = false;
+
+        @Override
+        public GameData getGame(int gameID) throws DataAccessException {
+            reads.incrementAndGet();
+            return super.getGame(gameID);
+        }
+
+        @Override
+        public void appendMove(GameData u, ChessMove move) throws DataAccessException {
+            appendMoves(u, List.of(move));
+        }
+
+        @Override
+        public void appendMoves(GameData u, List<ChessMove> moves) throws DataAccessException {
+            if (failing) {
+                throw new DataAccessException(500, "Error: store is down");
+            }
+            appends.addAndGet(moves.size());
+            writes.incrementAndGet();
+            super.appendMoves(u, moves);
+        }
+    }
+
+    private static ChessMove move(String from, String to) {
+        return new ChessMove(new ChessPosition(from.charAt(1) - '0', from.charAt(0) - 'a' + 1),
+                new ChessPosition(to.charAt(1) - '0', to.charAt(0) - 'a' + 1), null);
+    }
+
+    private static GameData play(GameDAO dao, int gameID, ChessMove move) throws DataAccessException, InvalidMoveException {
+        var gameData = dao.getGame(gameID);
+        gameData.game().makeMove(move);
+        if (gameData.game().getStatus().isFinal()) {
+            gameData.game().gameOver = true;
+        }
+        dao.appendMove(gameData, move);
+        return gameData;
+    }
+
+    @Test
+    @DisplayName("Games are read from memory")
+    public void readsFromMemory() throws DataAccessException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("cached");
+            var first = cache.getGame(gameID);
+            first.game().gameOver = true;
+            var second = cache.getGame(gameID);
+            Assertions.assertEquals(1, store.reads.get(), "Second read went to the store");
+            Assertions.assertFalse(second.game().gameOver, "Callers share the cached game");
+            Assertions.assertNull(cache.getGame(9999));
+        }
+    }
+
+    @Test
+    @DisplayName("Moves are written behind, in order")
+    public void movesWrittenBehind() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("behind");
+            play(cache, gameID, move("e2", "e4"));
+            play(cache, gameID, move("e7", "e5"));
+            Assertions.assertEquals(0, store.appends.get(), "Move written on the critical path");
+            Assertions.assertEquals(2, cache.pendingMoves());
+            Assertions.assertEquals(2, cache.getGame(gameID).game().getPly(), "Cache is behind the moves");
+
+            cache.flush();
+            Assertions.assertEquals(1, store.writes.get(), "Queued moves not written together");
+            Assertions.assertEquals(0, cache.pendingMoves());
+            Assertions.assertEquals(List.of(move("e2", "e4"), move("e7", "e5")), store.getMoves(gameID));
+            Assertions.assertEquals(2, store.getGame(gameID).game().getPly());
+
+            play(cache, gameID, move("g1", "f3"));
+            Assertions.assertEquals(3, cache.getMoves(gameID).size(), "Queued move missing from the log");
+        }
+    }
+
+    @Test
+    @DisplayName("Game-ending moves are written at once")
+    public void gameEndWrittenAtOnce() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("mate");
+            play(cache, gameID, move("f2", "f3"));
+            play(cache, gameID, move("e7", "e5"));
+            play(cache, gameID, move("g2", "g4"));
+            Assertions.assertEquals(0, store.appends.get());
+            play(cache, gameID, move("d8", "h4"));
+            Assertions.assertEquals(4, store.appends.get(), "Finished game not written");
+            Assertions.assertTrue(store.getGame(gameID).game().gameOver);
+        }
+    }
+
+    @Test
+    @DisplayName("Updates and close write queued moves first")
+    public void updatesAndCloseFlush() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        int gameID;
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            gameID = cache.createGame("seats");
+            var gameData = play(cache, gameID, move("d2", "d4"));
+            cache.updateGame(new GameData(gameID, "white", null, gameData.gameName(), gameData.game()));
+            Assertions.assertEquals(1, store.appends.get(), "Queued move not written before the update");
+            Assertions.assertEquals("white", store.getGame(gameID).whiteUsername());
+            Assertions.assertEquals("white", cache.getGame(gameID).whiteUsername());
+
+            play(cache, gameID, move("d7", "d5"));
+        }
+        Assertions.assertEquals(2, store.getMoves(gameID).size(), "Close lost a queued move");
+    }
+
+    @Test
+    @DisplayName("Background writer flushes and evicts idle games")
+    public void backgroundFlush() throws DataAccessException, InvalidMoveException, InterruptedException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 20, 50)) {
+            int gameID = cache.createGame("idle");
+            play(cache, gameID, move("c2", "c4"));
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (store.appends.get() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(1, store.appends.get(), "Background writer never ran");
+
+            Thread.sleep(200);
+            int reads = store.reads.get();
+            Assertions.assertEquals(1, cache.getGame(gameID).game().getPly());
+            Assertions.assertEquals(reads + 1, store.reads.get(), "Idle game still cached");
+        }
+    }
+
+    @Test
+    @DisplayName("Moves made on a stale copy are refused")
+    public void staleMovesRefused() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("stale");
+            var mover = cache.getGame(gameID);
+            var joined = cache.getGame(gameID);
+            cache.updateGame(new GameData(gameID, "white", null, joined.gameName(), joined.game()));
+            mover.game().makeMove(move("e2", "e4"));
+            cache.appendMove(mover, move("e2", "e4"));
+            Assertions.assertEquals("white", cache.getGame(gameID).whiteUsername(), "Move dropped the seat");
+
+            var second = cache.getGame(gameID);
+            play(cache, gameID, move("d7", "d5"));
+            second.game().makeMove(move("e7", "e5"));
+            Assertions.assertThrows(DataAccessException.class, () -> cache.appendMove(second, move("e7", "e5")));
+
+            var late = cache.getGame(gameID);
+            var resigned = cache.getGame(gameID);
+            resigned.game().gameOver = true;
+            cache.updateGame(resigned);
+            late.game().makeMove(move("g1", "f3"));
+            var e = Assertions.assertThrows(DataAccessException.class, () -> cache.appendMove(late, move("g1", "f3")));
+            Assertions.assertEquals(409, e.getStatus());
+            Assertions.assertTrue(cache.getGame(gameID).game().gameOver, "Move undid the resignation");
+            Assertions.assertTrue(store.getGame(gameID).game().gameOver);
+            Assertions.assertEquals(List.of(move("e2", "e4"), move("d7", "d5")), cache.getMoves(gameID));
+        }
+    }
+
+    @Test
+    @DisplayName("A game-ending move that fails to write is taken back")
+    public void failedGameEndTakenBack() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("down");
+            play(cache, gameID, move("f2", "f3"));
+            play(cache, gameID, move("e7", "e5"));
+            play(cache, gameID, move("g2", "g4"));
+            store.failing = true;
+            Assertions.assertThrows(DataAccessException.class, () -> play(cache, gameID, move("d8", "h4")));
+            var cached = cache.getGame(gameID).game();
+            Assertions.assertEquals(3, cached.getPly(), "Failed move kept as the position");
+            Assertions.assertFalse(cached.gameOver);
+            Assertions.assertEquals(3, cache.pendingMoves(), "Failed move kept in the queue");
+
+            store.failing = false;
+            play(cache, gameID, move("d8", "h4"));
+            Assertions.assertEquals(4, store.getMoves(gameID).size());
+            Assertions.assertTrue(store.getGame(gameID).game().gameOver);
+        }
+    }
+
+    @Test
+    @DisplayName("Updates from a stale copy keep the position")
+    public void staleUpdateKeepsPosition() throws DataAccessException, InvalidMoveException {
+        var store = new CountingGameAccess();
+        try (var cache = new CachingGameDAO(store, 60_000, 60_000)) {
+            int gameID = cache.createGame("resign");
+            var stale = cache.getGame(gameID);
+            play(cache, gameID, move("e2", "e4"));
+            stale.game().gameOver = true;
+            cache.updateGame(new GameData(gameID, "white", null, stale.gameName(), stale.game()));
+
+            var cached = cache.getGame(gameID);
+            Assertions.assertEquals(1, cached.game().getPly(), "Update took back a move");
+            Assertions.assertTrue(cached.game().gameOver);
+            Assertions.assertEquals("white", cached.whiteUsername());
+            Assertions.assertEquals(1, store.getGame(gameID).game().getPly());
+            Assertions.assertTrue(store.getGame(gameID).game().gameOver);
+
+            var reopened = cache.getGame(gameID);
+            reopened.game().gameOver = false;
+            cache.updateGame(reopened);
+            Assertions.assertTrue(cache.getGame(gameID).game().gameOver, "Update cleared gameOver");
+        }
+    }
+}
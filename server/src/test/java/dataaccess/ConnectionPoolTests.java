@@ -0,0 +1,97 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class ConnectionPoolTests {
+
+    private static Connection fakeConnection(AtomicBoolean valid) {
+        var closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        closed.set(true);
+                        yield null;
+                    }
+                    case "isClosed" -> closed.get();
+                    case "isValid" -> valid.get() && !closed.get();
+                    case "getAutoCommit" -> true;
+                    case "getCatalog" -> "chess";
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> null;
+                });
+    }
+
+    @Test
+    @DisplayName("Connections are reused")
+    public void connectionsReused() throws SQLException {
+        try (var pool = new ConnectionPool(() -> fakeConnection(new AtomicBoolean(true)), 2, 100, 60_000)) {
+            var first = pool.getConnection();
+            Assertions.assertEquals("chess", first.getCatalog());
+            first.close();
+            Assertions.assertTrue(first.isClosed());
+            Assertions.assertThrows(SQLException.class, first::getCatalog, "Returned connection still usable");
+            first.close();
+
+            try (var second = pool.getConnection()) {
+                Assertions.assertEquals("chess", second.getCatalog());
+            }
+            var stats = pool.stats();
+            Assertions.assertEquals(1, stats.created());
+            Assertions.assertEquals(2, stats.borrowed());
+            Assertions.assertEquals(0, stats.active());
+            Assertions.assertEquals(1, stats.idle());
+        }
+    }
+
+    @Test
+    @DisplayName("Pool is bounded")
+    public void poolBounded() throws SQLException {
+        try (var pool = new ConnectionPool(() -> fakeConnection(new AtomicBoolean(true)), 1, 50, 60_000)) {
+            try (var held = pool.getConnection()) {
+                Assertions.assertFalse(held.isClosed());
+                Assertions.assertThrows(SQLException.class, pool::getConnection);
+                Assertions.assertEquals(1, pool.stats().timeouts());
+                Assertions.assertEquals(1, pool.stats().active());
+            }
+            pool.getConnection().close();
+            Assertions.assertEquals(1, pool.stats().created());
+        }
+    }
+
+    @Test
+    @DisplayName("Idle and broken connections are replaced")
+    public void idleAndBrokenReplaced() throws SQLException, InterruptedException {
+        var valid = new AtomicBoolean(true);
+        try (var pool = new ConnectionPool(() -> fakeConnection(valid), 2, 100, 60_000)) {
+            pool.getConnection().close();
+            Thread.sleep(1_100);
+            pool.getConnection().close();
+            Assertions.assertEquals(1, pool.stats().created(), "Valid connection not reused");
+
+            var broken = new AtomicBoolean(true);
+            try (var other = new ConnectionPool(() -> fakeConnection(broken), 2, 100, 60_000)) {
+                other.getConnection().close();
+                broken.set(false);
+                Thread.sleep(1_100);
+                other.getConnection().close();
+                Assertions.assertEquals(2, other.stats().created(), "Broken connection lent out");
+                Assertions.assertEquals(1, other.stats().discarded());
+            }
+        }
+
+        try (var pool = new ConnectionPool(() -> fakeConnection(valid), 2, 100, 10)) {
+            pool.getConnection().close();
+            Thread.sleep(30);
+            pool.getConnection().close();
+            Assertions.assertEquals(2, pool.stats().created(), "Idle connection not evicted");
+        }
+    }
+}
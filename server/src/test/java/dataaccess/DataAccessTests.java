@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import model.AuthData;
 import model.GameData;
 import model.UserData;
@@ -226,4 +229,142 @@ public class DataAccessTests {
         Assertions.assertEquals(new ArrayList<>(), GAME_ACCESS.listGames());
     }
 
+    @Test
+    @Order(18)
+    @DisplayName("append moves")
+    public void appendMoves() throws DataAccessException, InvalidMoveException {
+        String[] moves = {"e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6", "b5a4", "g8f6", "e1g1", "f8e7", "f1e1",
+                "b7b5", "a4b3", "d7d6", "c2c3", "e8g8", "h2h3", "c6b8", "d2d4", "b8d7", "c3c4", "c7c6", "c4b5",
+                "a6b5", "b1c3", "c8b7"};
+        var gameID = GAME_ACCESS.createGame("gamename");
+        var gameData = GAME_ACCESS.getGame(gameID);
+        var game = gameData.game();
+        for (var text : moves) {
+            var move = new ChessMove(ChessPosition.of(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                    ChessPosition.of(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null);
+            game.makeMove(move);
+            GAME_ACCESS.appendMove(gameData, move);
+        }
+        var loaded = GAME_ACCESS.getGame(gameID).game();
+        Assertions.assertEquals(game.toFen(), loaded.toFen(), "Game not rebuilt from snapshot and moves");
+        Assertions.assertArrayEquals(game.getPositionHistory(), loaded.getPositionHistory());
+        Assertions.assertEquals(moves.length, GAME_ACCESS.getMoves(gameID).size());
+    }
+
+    @Test
+    @Order(19)
+    @DisplayName("invalid get moves")
+    public void igetmoves() throws DataAccessException {
+        Assertions.assertEquals(new ArrayList<>(), GAME_ACCESS.getMoves(1234));
+    }
+
+    @Test
+    @Order(20)
+    @DisplayName("Expired Auth")
+    public void expiredAuth() throws DataAccessException {
+        USER_ACCESS.createUser(new UserData("username", "password", "email.com"));
+        AUTH_ACCESS.createAuth(new AuthData("55-24-AJ", "username"));
+        Assertions.assertEquals(0, AUTH_ACCESS.deleteExpired(), "Fresh token deleted");
+        var shortLived = new AuthSqlAccess(0);
+        Assertions.assertNull(shortLived.getAuth("55-24-AJ"), "Expired token returned");
+        Assertions.assertEquals(1, shortLived.deleteExpired());
+        Assertions.assertNull(AUTH_ACCESS.getAuth("55-24-AJ"), "Expired token not deleted");
+    }
+
+    @Test
+    @Order(21)
+    @DisplayName("list games by page")
+    public void listGamesPage() throws DataAccessException {
+        USER_ACCESS.createUser(new UserData("username", "password", "email.com"));
+        var first = GAME_ACCESS.createGame("first");
+        var second = GAME_ACCESS.createGame("second");
+        var third = GAME_ACCESS.createGame("third");
+        var joined = GAME_ACCESS.getGame(second);
+        GAME_ACCESS.updateGame(new GameData(second, null, "username", "second", joined.game()));
+
+        var page = GAME_ACCESS.listGames(GameQuery.firstPage(2));
+        Assertions.assertEquals(2, page.size());
+        Assertions.assertEquals(first, page.get(0).gameID());
+        var rest = GAME_ACCESS.listGames(new GameQuery(page.get(1).gameID(), 2, false, null, null));
+        Assertions.assertEquals(third, rest.get(0).gameID());
+        Assertions.assertEquals(1, rest.size());
+
+        var mine = GAME_ACCESS.listGames(new GameQuery(0, 10, false, "username", false));
+        Assertions.assertEquals(1, mine.size());
+        Assertions.assertEquals(second, mine.get(0).gameID());
+        Assertions.assertTrue(GAME_ACCESS.listGames(new GameQuery(0, 10, false, null, true)).isEmpty());
+    }
+
+    @Test
+    @Order(22)
+    @DisplayName("batched writes")
+    public void batchedWrites() throws DataAccessException, InvalidMoveException {
+        var users = new ArrayList<UserData>();
+        for (int i = 0; i < 50; i++) {
+            users.add(new UserData("user" + i, "password", "user" + i + "@email.com"));
+        }
+        USER_ACCESS.createUsers(users);
+        Assertions.assertEquals("user49@email.com", USER_ACCESS.getUser("user49").email());
+        var duplicate = java.util.List.of(new UserData("fresh", "password", "email.com"), users.get(0));
+        Assertions.assertThrows(DataAccessException.class, () -> USER_ACCESS.createUsers(duplicate));
+        Assertions.assertNull(USER_ACCESS.getUser("fresh"), "Failed batch partly written");
+
+        var gameID = GAME_ACCESS.createGame("batched");
+        var gameData = GAME_ACCESS.getGame(gameID);
+        var game = gameData.game();
+        var moves = new ArrayList<ChessMove>();
+        String[][] line = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}, {"g1", "f3"}};
+        for (var squares : line) {
+            var move = new ChessMove(new ChessPosition(squares[0].charAt(1) - '0', squares[0].charAt(0) - 'a' + 1),
+                    new ChessPosition(squares[1].charAt(1) - '0', squares[1].charAt(0) - 'a' + 1), null);
+            game.makeMove(move);
+            moves.add(move);
+        }
+        GAME_ACCESS.appendMoves(gameData, moves);
+        Assertions.assertEquals(moves, GAME_ACCESS.getMoves(gameID));
+        var loaded = GAME_ACCESS.getGame(gameID).game();
+        Assertions.assertEquals(game.getPositionKey(), loaded.getPositionKey());
+        Assertions.assertArrayEquals(game.getPositionHistory(), loaded.getPositionHistory());
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("legacy game rows")
+    public void legacyGameRows() throws DataAccessException {
+        var empty = "[null,null,null,null,null,null,null,null]";
+        var legacy = "{\"currentPlayer\":\"BLACK\",\"board\":{\"board\":[" + empty + "," + empty + "," + empty + ","
+                + empty + "," + empty + ","
+                + "[null,null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\"},null,null],"
+                + "[null,null,null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"QUEEN\"},null],"
+                + "[null,null,null,null,null,null,null,{\"pieceColor\":\"BLACK\",\"type\":\"KING\"}]],"
+                + "\"whiteKing\":{\"row\":6,\"col\":6},\"blackKing\":{\"row\":8,\"col\":8}},"
+                + "\"enPassantPosition\":null,\"whiteCanCastleRight\":false,\"blackCanCastleRight\":false,"
+                + "\"whiteCanCastleLeft\":false,\"blackCanCastleLeft\":false,\"gameOver\":false}";
+        int gameID = SqlUtils.executeUpdate("INSERT INTO game (gameName, game) VALUES(?, ?)", "legacy", legacy);
+        SqlUtils.executeUpdate("INSERT INTO game (gameName, game) VALUES(?, ?)", "broken", "{\"board\": [");
+        new GameSqlAccess();
+
+        var finished = GAME_ACCESS.listGames(new GameQuery(0, 10, false, null, true));
+        Assertions.assertEquals(1, finished.size(), "Checkmated legacy game not listed as finished");
+        var game = GAME_ACCESS.getGame(gameID).game();
+        Assertions.assertTrue(game.gameOver);
+        Assertions.assertTrue(game.toFen().startsWith("7k/6Q1/5K2/8/8/8/8/8 b - - "), game.toFen());
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("move already stored")
+    public void moveAlreadyStored() throws DataAccessException, InvalidMoveException {
+        var gameID = GAME_ACCESS.createGame("twice");
+        var gameData = GAME_ACCESS.getGame(gameID);
+        var move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        gameData.game().makeMove(move);
+        GAME_ACCESS.appendMove(gameData, move);
+
+        var other = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+        var e = Assertions.assertThrows(DataAccessException.class, () -> GAME_ACCESS.appendMove(gameData, other));
+        Assertions.assertEquals(409, e.getStatus());
+        Assertions.assertEquals(java.util.List.of(move), GAME_ACCESS.getMoves(gameID));
+    }
+
 }
@@ -0,0 +1,102 @@
+package server.websocket;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import dataaccess.GameMemoryAccess;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BotSchedulerTests {
+
+    @Test
+    @DisplayName("Bot answers a move")
+    public void botAnswersMove() throws DataAccessException, InvalidMoveException, InterruptedException {
+        var gameAccess = new GameMemoryAccess();
+        try (var bots = new BotScheduler(gameAccess, new ConnectionManager(), 2, 100)) {
+            int gameID = gameAccess.createGame("botgame", 1);
+            var gameData = gameAccess.getGame(gameID);
+            gameData = new GameData(gameID, "human", null, "botgame", gameData.game(), gameData.botLevel());
+            gameAccess.updateGame(gameData);
+
+            Assertions.assertTrue(bots.requestMove(gameID));
+            Thread.sleep(200);
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, gameAccess.getGame(gameID).game().getTeamTurn(),
+                    "Bot moved on the human's turn");
+
+            gameData.game().makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+            gameAccess.updateGame(gameData);
+            Assertions.assertTrue(bots.requestMove(gameID));
+            Assertions.assertTrue(bots.requestMove(gameID));
+            waitForTurn(gameAccess, gameID, ChessGame.TeamColor.WHITE);
+            Assertions.assertEquals(1, gameAccess.getMoves(gameID).size(), "Bot move not logged");
+            Thread.sleep(200);
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, gameAccess.getGame(gameID).game().getTeamTurn(),
+                    "Bot moved twice");
+        }
+    }
+
+    @Test
+    @DisplayName("Bot plays white")
+    public void botPlaysWhite() throws DataAccessException, InterruptedException {
+        var gameAccess = new GameMemoryAccess();
+        try (var bots = new BotScheduler(gameAccess, new ConnectionManager(), 1, 100)) {
+            int gameID = gameAccess.createGame("botgame", 2);
+            var game = gameAccess.getGame(gameID).game();
+            gameAccess.updateGame(new GameData(gameID, null, "human", "botgame", game, 2));
+            Assertions.assertTrue(bots.requestMove(gameID));
+            waitForTurn(gameAccess, gameID, ChessGame.TeamColor.BLACK);
+        }
+    }
+
+    @Test
+    @DisplayName("Human games are left alone")
+    public void humanGamesLeftAlone() throws DataAccessException, InterruptedException {
+        var gameAccess = new GameMemoryAccess();
+        try (var bots = new BotScheduler(gameAccess, new ConnectionManager(), 1, 100)) {
+            int gameID = gameAccess.createGame("game");
+            Assertions.assertTrue(bots.requestMove(gameID));
+            Thread.sleep(200);
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, gameAccess.getGame(gameID).game().getTeamTurn());
+        }
+    }
+
+    @Test
+    @DisplayName("Stale bot moves are dropped")
+    public void staleMoveDropped() throws DataAccessException, InterruptedException {
+        var attempts = new AtomicInteger();
+        var gameAccess = new GameMemoryAccess() {
+            @Override
+            public void appendMove(GameData u, ChessMove move) throws DataAccessException {
+                attempts.incrementAndGet();
+                throw new DataAccessException(409, "Error: game is over");
+            }
+        };
+        try (var bots = new BotScheduler(gameAccess, new ConnectionManager(), 1, 100)) {
+            int gameID = gameAccess.createGame("botgame", 1);
+            var game = gameAccess.getGame(gameID).game();
+            gameAccess.updateGame(new GameData(gameID, null, "human", "botgame", game, 1));
+            Assertions.assertTrue(bots.requestMove(gameID));
+            for (int i = 0; i < 100 && attempts.get() == 0; i++) {
+                Thread.sleep(50);
+            }
+            Thread.sleep(300);
+            Assertions.assertEquals(1, attempts.get(), "Stale move was retried");
+            Assertions.assertTrue(gameAccess.getMoves(gameID).isEmpty());
+        }
+    }
+
+    private static void waitForTurn(GameMemoryAccess gameAccess, int gameID, ChessGame.TeamColor turn)
+            throws DataAccessException, InterruptedException {
+        for (int i = 0; i < 100 && gameAccess.getGame(gameID).game().getTeamTurn() != turn; i++) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(turn, gameAccess.getGame(gameID).game().getTeamTurn());
+    }
+}
@@ -0,0 +1,110 @@
+package service;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import dataaccess.AuthMemoryAccess;
+import dataaccess.DataAccessException;
+import dataaccess.GameMemoryAccess;
+import model.AuthData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import service.requests.AnalysisRequest;
+
+public class AnalysisServiceTests {
+
+    @Test
+    @DisplayName("Analyze a game")
+    public void analyzeGame() throws DataAccessException {
+        var gameAccess = new GameMemoryAccess();
+        var authAccess = new AuthMemoryAccess();
+        authAccess.createAuth(new AuthData("token", "username"));
+        int gameID = gameAccess.createGame("game");
+        try (var service = new AnalysisService(gameAccess, authAccess, 1, 10, 100)) {
+            var analysis = service.analyze(new AnalysisRequest(gameID, 3, "token")).join();
+            Assertions.assertEquals(3, analysis.depth());
+            Assertions.assertNotNull(analysis.bestMove());
+            Assertions.assertEquals(gameAccess.getGame(gameID).game().getPositionKey(), analysis.positionKey());
+            Assertions.assertTrue(service.analyze(new AnalysisRequest(gameID, 2, "token")).isDone(),
+                    "Deeper cached result not used");
+        }
+    }
+
+    @Test
+    @DisplayName("Invalid analysis requests")
+    public void invalidRequests() throws DataAccessException {
+        var gameAccess = new GameMemoryAccess();
+        var authAccess = new AuthMemoryAccess();
+        authAccess.createAuth(new AuthData("token", "username"));
+        int gameID = gameAccess.createGame("game");
+        try (var service = new AnalysisService(gameAccess, authAccess, 1, 10, 100)) {
+            var badAuth = Assertions.assertThrows(DataAccessException.class,
+                    () -> service.analyze(new AnalysisRequest(gameID, 3, "wrong")));
+            Assertions.assertEquals(401, badAuth.getStatus());
+            var badDepth = Assertions.assertThrows(DataAccessException.class,
+                    () -> service.analyze(new AnalysisRequest(gameID, 99, "token")));
+            Assertions.assertEquals(400, badDepth.getStatus());
+            var badGame = Assertions.assertThrows(DataAccessException.class,
+                    () -> service.analyze(new AnalysisRequest(gameID + 1, 3, "token")));
+            Assertions.assertEquals(400, badGame.getStatus());
+        }
+    }
+
+    @Test
+    @DisplayName("Same position shares one job")
+    public void samePositionCoalesced() {
+        try (var service = new AnalysisService(new GameMemoryAccess(), new AuthMemoryAccess(), 1, 10, 100)) {
+            var busy = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            var blocker = service.analyze(busy, 10);
+            var game = Fen.load("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
+            var first = service.analyze(game, 4);
+            var second = service.analyze(game.copy(), 4);
+            Assertions.assertSame(first, second, "Duplicate request started a second job");
+            Assertions.assertEquals(first.join(), second.join());
+            blocker.join();
+        }
+    }
+
+    @Test
+    @DisplayName("Mate is reported for white")
+    public void mateFromWhitesSide() {
+        try (var service = new AnalysisService(new GameMemoryAccess(), new AuthMemoryAccess(), 1, 10, 100)) {
+            var game = Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 b - - 0 1");
+            var analysis = service.analyze(game, 4).join();
+            Assertions.assertNull(analysis.mateIn(), "Black is not mated yet: " + analysis);
+            game = Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            analysis = service.analyze(game, 4).join();
+            Assertions.assertEquals(1, analysis.mateIn());
+            Assertions.assertTrue(analysis.score() > 0);
+            Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null),
+                    analysis.bestMove());
+        }
+    }
+
+    @Test
+    @DisplayName("Search cut short is cached at the depth it reached")
+    public void timeBudgetDepth() {
+        try (var service = new AnalysisService(new GameMemoryAccess(), new AuthMemoryAccess(), 1, 10, 100, 1)) {
+            var game = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            var analysis = service.analyze(game, AnalysisService.MAX_DEPTH).join();
+            Assertions.assertTrue(analysis.depth() < AnalysisService.MAX_DEPTH, "Search was not cut short");
+            Assertions.assertNull(service.cached(game, AnalysisService.MAX_DEPTH), "Shallow result cached as deep");
+            Assertions.assertEquals(analysis, service.cached(game, analysis.depth()));
+        }
+    }
+
+    @Test
+    @DisplayName("Forced mates are cached for every depth")
+    public void mateCachedForEveryDepth() {
+        try (var service = new AnalysisService(new GameMemoryAccess(), new AuthMemoryAccess(), 1, 10, 100)) {
+            var game = Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            var analysis = service.analyze(game, 6).join();
+            Assertions.assertEquals(1, analysis.mateIn());
+            Assertions.assertTrue(analysis.depth() < 6, "Search did not stop at the mate");
+            Assertions.assertEquals(analysis, service.cached(game, 6));
+            Assertions.assertEquals(analysis, service.cached(game, AnalysisService.MAX_DEPTH));
+            Assertions.assertTrue(service.analyze(game, 8).isDone(), "Mate searched again");
+        }
+    }
+}
@@ -169,4 +169,93 @@ public class ServiceTests {
         Assertions.assertThrows(DataAccessException.class, () -> USER_SERVICE.login(loginRequest));
     }
 
+    @Test
+    @Order(13)
+    @DisplayName("Create bot game")
+    public void createBotGame() throws DataAccessException {
+        GAME_SERVICE.clear();
+        userRegister();
+        var loginResult = USER_SERVICE.login(new LoginRequest("username", "password"));
+        String authToken = loginResult.authToken();
+        var createGameResult = GAME_SERVICE.createGame(new CreateGameRequest("botgame", authToken, 3));
+        GAME_SERVICE.joinGame(new JoinGameRequest("BLACK", createGameResult.gameID(), authToken));
+        var gameData = GAME_ACCESS.getGame(createGameResult.gameID());
+        Assertions.assertEquals(3, gameData.botLevel());
+        Assertions.assertEquals(chess.ChessGame.TeamColor.WHITE, gameData.botColor());
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("invalid bot game")
+    public void invalidBotGame() throws DataAccessException {
+        GAME_SERVICE.clear();
+        USER_SERVICE.clear();
+        userRegister();
+        var authToken = USER_SERVICE.login(new LoginRequest("username", "password")).authToken();
+        var badLevel = new CreateGameRequest("botgame", authToken, 9);
+        Assertions.assertThrows(DataAccessException.class, () -> GAME_SERVICE.createGame(badLevel));
+
+        var gameID = GAME_SERVICE.createGame(new CreateGameRequest("botgame", authToken, 1)).gameID();
+        GAME_SERVICE.joinGame(new JoinGameRequest("WHITE", gameID, authToken));
+        var botSeat = new JoinGameRequest("BLACK", gameID, authToken);
+        Assertions.assertThrows(DataAccessException.class, () -> GAME_SERVICE.joinGame(botSeat));
+    }
+
+    @Test
+    @Order(15)
+    @DisplayName("List games by page")
+    public void pagedGameList() throws DataAccessException {
+        GAME_SERVICE.clear();
+        USER_SERVICE.clear();
+        userRegister();
+        var authToken = USER_SERVICE.login(new LoginRequest("username", "password")).authToken();
+        for (int i = 0; i < 5; i++) {
+            GAME_SERVICE.createGame(new CreateGameRequest("game" + i, authToken));
+        }
+        var seen = new java.util.ArrayList<Integer>();
+        Integer cursor = null;
+        do {
+            var page = GAME_SERVICE.listGames(new ListGamesRequest(authToken, cursor, 2, null, null, null));
+            Assertions.assertTrue(page.games().size() <= 2);
+            page.games().forEach(game -> seen.add(game.gameID()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        Assertions.assertEquals(5, seen.size());
+        Assertions.assertEquals(seen.stream().sorted().toList(), seen, "Pages out of order");
+
+        var badLimit = new ListGamesRequest(authToken, null, GameService.MAX_PAGE_SIZE + 1, null, null, null);
+        Assertions.assertThrows(DataAccessException.class, () -> GAME_SERVICE.listGames(badLimit));
+    }
+
+    @Test
+    @Order(16)
+    @DisplayName("List games by filter")
+    public void filteredGameList() throws DataAccessException {
+        GAME_SERVICE.clear();
+        USER_SERVICE.clear();
+        userRegister();
+        var authToken = USER_SERVICE.login(new LoginRequest("username", "password")).authToken();
+        var mine = GAME_SERVICE.createGame(new CreateGameRequest("mine", authToken)).gameID();
+        GAME_SERVICE.joinGame(new JoinGameRequest("WHITE", mine, authToken));
+        GAME_SERVICE.joinGame(new JoinGameRequest("BLACK", mine, authToken));
+        var open = GAME_SERVICE.createGame(new CreateGameRequest("open", authToken)).gameID();
+        var bot = GAME_SERVICE.createGame(new CreateGameRequest("bot", authToken, 1)).gameID();
+        GAME_SERVICE.joinGame(new JoinGameRequest("WHITE", bot, authToken));
+        var finished = GAME_ACCESS.getGame(open);
+        finished.game().gameOver = true;
+        GAME_ACCESS.updateGame(finished);
+
+        Assertions.assertEquals(java.util.List.of(open), ids(new ListGamesRequest(authToken, null, null, true, null, null)));
+        Assertions.assertEquals(java.util.List.of(mine, bot),
+                ids(new ListGamesRequest(authToken, null, null, null, "username", null)));
+        Assertions.assertEquals(java.util.List.of(open), ids(new ListGamesRequest(authToken, null, null, null, null, true)));
+        Assertions.assertEquals(java.util.List.of(mine, bot),
+                ids(new ListGamesRequest(authToken, null, null, null, "username", false)));
+        Assertions.assertEquals(java.util.List.of(),
+                ids(new ListGamesRequest(authToken, null, null, true, "username", null)));
+    }
+
+    private static java.util.List<Integer> ids(ListGamesRequest request) throws DataAccessException {
+        return GAME_SERVICE.listGames(request).games().stream().map(GameData::gameID).toList();
+    }
 }
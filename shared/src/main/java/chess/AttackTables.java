@@ -0,0 +1,250 @@
+package chess;
+
+/**
+ * Precomputed attack bitboards for every piece type.
+ * <p>
+ * Knights, kings and pawns use plain per-square tables. Rooks and bishops use magic
+ * bitboards: the blockers on a square's rays are multiplied by a per-square magic
+ * number, and the top bits of the product index straight into a table of attack sets.
+ * Queens are the union of the two. The magic numbers below were found by random search
+ * over sparse candidates; filling the tables checks that none of them collide.
+ */
+public final class AttackTables {
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final int[] ROOK_SHIFT = new int[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] BISHOP_SHIFT = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+    private static final long[] SLIDER_ATTACKS;
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    private static final long[] ROOK_MAGIC = {
+            0x1080004008801020L, 0x0840092002C03000L, 0x1900200010400900L, 0x0880100008000480L,
+            0x4200100420080200L, 0x8100020100080400L, 0x0200040110886200L, 0x0200008040220411L,
+            0x0404800084400220L, 0x0000401000402000L, 0x0086001081220440L, 0x0408800800100280L,
+            0x000A001201040820L, 0x8848800200840080L, 0x4001000100040200L, 0x0442000102105084L,
+            0x9080010020804100L, 0x0040404000201009L, 0x0000808010002009L, 0x2200090021D00100L,
+            0x0008008008040080L, 0x0004004002010040L, 0x0011040008015042L, 0x00000A0001768104L,
+            0x0000800080204009L, 0x2010004140002001L, 0x9800200280100080L, 0x1000100080080080L,
+            0x0050500500080100L, 0x0000020080040080L, 0x0C10010400420810L, 0x1040008200005104L,
+            0x01808240088004A0L, 0x0882804004802000L, 0x0880402001001100L, 0x2000210409001000L,
+            0x2000480131001500L, 0x0000800400800200L, 0x000002380C001003L, 0x4600084882000431L,
+            0x0080002000504000L, 0x0300500020004002L, 0x0040408200220011L, 0x0010040008004040L,
+            0x0000080004008080L, 0x0010040002008080L, 0x2012004881020004L, 0x8300842444820011L,
+            0x0088403882010200L, 0x0820400080210100L, 0x0110910040A00300L, 0x0801100280080480L,
+            0x0242009008200600L, 0x1002000489500200L, 0x0040800200010080L, 0x0091800041000080L,
+            0x0000209300488001L, 0x04C1002414824001L, 0x020020000B001041L, 0x7000100004200901L,
+            0x8002002004100802L, 0x30010002084C0007L, 0x0888221800813004L, 0x4000002840840112L
+    };
+    private static final long[] BISHOP_MAGIC = {
+            0x20C0090901061081L, 0x0024040094030104L, 0x8210810200290200L, 0x0011040484620000L,
+            0x0081104002221000L, 0x0009012011001350L, 0x0081010802400380L, 0x0000420210010408L,
+            0x0008105002280050L, 0x0001028484040044L, 0x2A00880810408804L, 0x7020022282000100L,
+            0x0084040420100A50L, 0x000401010840E000L, 0x2020020210420888L, 0x0008084202012010L,
+            0x2010400810018800L, 0x0445122008020840L, 0x0804100808002008L, 0x0008002104110100L,
+            0x0061005820080800L, 0x2001000200820100L, 0x480C210084010800L, 0x3004442500480420L,
+            0x1010102240048100L, 0x00182009084220A3L, 0x8803090A10004205L, 0x0208080040202020L,
+            0x000C044084010040L, 0x00A1010002004106L, 0x6008210020640202L, 0x1600902112860801L,
+            0x00042008C1220200L, 0x010C042002440140L, 0x5022080200040820L, 0x0402004042940100L,
+            0x0860108400008020L, 0x000C080022021000L, 0x0264080652822100L, 0x4005031221010401L,
+            0x0004502410008400L, 0x000500B010A20400L, 0x0415094050080800L, 0x080000201800A104L,
+            0x4022A80304000110L, 0x4012140802028020L, 0x40200104010100A0L, 0x12810806008B0C41L,
+            0x0020441008080000L, 0x2002120084045420L, 0x0704020062080002L, 0x0000001084040001L,
+            0x0322200891240200L, 0xF040200210024800L, 0x0140824832008042L, 0x000210020A004602L,
+            0x0083042805141020L, 0x002C12009A011000L, 0x0041A00044140400L, 0x00004004020A0202L,
+            0x0000140010020210L, 0x2864160811012200L, 0x2060080841082A17L, 0xA010041108003100L
+    };
+
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] KNIGHT_OFFSETS = {{2, 1}, {2, -1}, {-2, 1}, {-2, -1},
+            {1, 2}, {1, -2}, {-1, 2}, {-1, -2}};
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            int row = Bitboard.row(square);
+            int col = Bitboard.column(square);
+            for (var offset : KNIGHT_OFFSETS) {
+                KNIGHT[square] |= bitIfOnBoard(row + offset[0], col + offset[1]);
+            }
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if (dy != 0 || dx != 0) {
+                        KING[square] |= bitIfOnBoard(row + dy, col + dx);
+                    }
+                }
+            }
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] =
+                    bitIfOnBoard(row + 1, col - 1) | bitIfOnBoard(row + 1, col + 1);
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] =
+                    bitIfOnBoard(row - 1, col - 1) | bitIfOnBoard(row - 1, col + 1);
+        }
+
+        int size = 0;
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASK[square] = relevantMask(square, ROOK_DIRECTIONS);
+            BISHOP_MASK[square] = relevantMask(square, BISHOP_DIRECTIONS);
+            ROOK_OFFSET[square] = size;
+            size += 1 << Long.bitCount(ROOK_MASK[square]);
+            BISHOP_OFFSET[square] = size;
+            size += 1 << Long.bitCount(BISHOP_MASK[square]);
+        }
+        SLIDER_ATTACKS = new long[size];
+
+        for (int square = 0; square < 64; square++) {
+            ROOK_SHIFT[square] = 64 - Long.bitCount(ROOK_MASK[square]);
+            fillSliderTable(square, ROOK_MASK[square], ROOK_MAGIC[square], ROOK_SHIFT[square],
+                    ROOK_OFFSET[square], ROOK_DIRECTIONS);
+            BISHOP_SHIFT[square] = 64 - Long.bitCount(BISHOP_MASK[square]);
+            fillSliderTable(square, BISHOP_MASK[square], BISHOP_MAGIC[square], BISHOP_SHIFT[square],
+                    BISHOP_OFFSET[square], BISHOP_DIRECTIONS);
+        }
+
+        for (int a = 0; a < 64; a++) {
+            for (int b = 0; b < 64; b++) {
+                if (a == b) {
+                    continue;
+                }
+                long ends = Bitboard.bit(a) | Bitboard.bit(b);
+                if ((rookAttacks(a, 0L) & Bitboard.bit(b)) != 0) {
+                    BETWEEN[a * 64 + b] = rookAttacks(a, Bitboard.bit(b)) & rookAttacks(b, Bitboard.bit(a));
+                    LINE[a * 64 + b] = (rookAttacks(a, 0L) & rookAttacks(b, 0L)) | ends;
+                } else if ((bishopAttacks(a, 0L) & Bitboard.bit(b)) != 0) {
+                    BETWEEN[a * 64 + b] = bishopAttacks(a, Bitboard.bit(b)) & bishopAttacks(b, Bitboard.bit(a));
+                    LINE[a * 64 + b] = (bishopAttacks(a, 0L) & bishopAttacks(b, 0L)) | ends;
+                }
+            }
+        }
+    }
+
+    private AttackTables() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on this square captures on
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    public static long rookAttacks(int square, long occupied) {
+        long index = ((occupied & ROOK_MASK[square]) * ROOK_MAGIC[square]) >>> ROOK_SHIFT[square];
+        return SLIDER_ATTACKS[ROOK_OFFSET[square] + (int) index];
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        long index = ((occupied & BISHOP_MASK[square]) * BISHOP_MAGIC[square]) >>> BISHOP_SHIFT[square];
+        return SLIDER_ATTACKS[BISHOP_OFFSET[square] + (int) index];
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file or
+     * diagonal, or an empty bitboard if they don't share one
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a * 64 + b];
+    }
+
+    /**
+     * @return the whole rank, file or diagonal running through both squares, or an
+     * empty bitboard if they don't share one
+     */
+    public static long line(int a, int b) {
+        return LINE[a * 64 + b];
+    }
+
+    /**
+     * Attack set of any piece on a square, including squares held by either side.
+     * Pawn pushes are not attacks and are not included.
+     */
+    public static long attacks(ChessPiece.PieceType type, ChessGame.TeamColor color, int square, long occupied) {
+        return switch (type) {
+            case KING -> KING[square];
+            case QUEEN -> queenAttacks(square, occupied);
+            case BISHOP -> bishopAttacks(square, occupied);
+            case KNIGHT -> KNIGHT[square];
+            case ROOK -> rookAttacks(square, occupied);
+            case PAWN -> PAWN[color.ordinal()][square];
+        };
+    }
+
+    private static long bitIfOnBoard(int row, int col) {
+        return Bitboard.onBoard(row, col) ? Bitboard.bit(Bitboard.square(row, col)) : 0L;
+    }
+
+    /**
+     * The squares whose occupancy matters to a slider: every ray square except the
+     * last one on the edge, since a piece there can't block anything further.
+     */
+    private static long relevantMask(int square, int[][] directions) {
+        long mask = 0L;
+        for (var direction : directions) {
+            int row = Bitboard.row(square) + direction[0];
+            int col = Bitboard.column(square) + direction[1];
+            while (Bitboard.onBoard(row + direction[0], col + direction[1])) {
+                mask |= Bitboard.bit(Bitboard.square(row, col));
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slowAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (var direction : directions) {
+            int row = Bitboard.row(square) + direction[0];
+            int col = Bitboard.column(square) + direction[1];
+            while (Bitboard.onBoard(row, col)) {
+                long bit = Bitboard.bit(Bitboard.square(row, col));
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                row += direction[0];
+                col += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks every blocker subset of the mask and stores its attack set at the slot the
+     * magic maps it to. Two subsets may share a slot only if their attacks agree.
+     */
+    private static void fillSliderTable(int square, long mask, long magic, int shift, int offset,
+                                        int[][] directions) {
+        int size = 1 << Long.bitCount(mask);
+        boolean[] used = new boolean[size];
+        long subset = 0L;
+        do {
+            long attacks = slowAttacks(square, subset, directions);
+            int index = (int) ((subset * magic) >>> shift);
+            if (used[index] && SLIDER_ATTACKS[offset + index] != attacks) {
+                throw new IllegalStateException("Bad magic number for square " + square);
+            }
+            used[index] = true;
+            SLIDER_ATTACKS[offset + index] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+    }
+}
@@ -0,0 +1,62 @@
+package chess;
+
+/**
+ * Helpers for working with 64-bit bitboards.
+ * <p>
+ * Squares are numbered 0 (a1) through 63 (h8), so bit {@code (row-1)*8 + (col-1)}
+ * stands for the square at that {@link ChessPosition}.
+ */
+public final class Bitboard {
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+
+    private Bitboard() {
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    /**
+     * @return the row (1-8) of a square index
+     */
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return the column (1-8) of a square index
+     */
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return the shared ChessPosition for a square index
+     */
+    public static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean onBoard(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
+    }
+
+    /**
+     * Index into the 12 piece bitboards: six per color, ordered by {@link ChessPiece.PieceType}
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+}
@@ -12,23 +12,80 @@ import java.util.Objects;
 public class ChessBoard implements Cloneable {
     private ChessPiece[][] board = new ChessPiece[8][8];
 
-    private ChessPosition whiteKing = null;
-    private ChessPosition blackKing = null;
+    /*
+     * Bitboard engine kept in step with the board array. One long per piece type and
+     * color, one per color, and one for every occupied square. These are rebuilt from
+     * the array whenever the array they were built from is replaced (setBoard, clone,
+     * or deserialization), so they are never serialized.
+     */
+    private transient long[] pieceBoards = new long[12];
+    private transient long[] colorBoards = new long[2];
+    private transient long occupied = 0L;
+    private transient long pieceKey = 0L;
+    private transient ChessPiece[][] indexedBoard = board;
 
-    public ChessPosition getWhiteKing() {
-        return whiteKing;
+    /*
+     * Evaluation sums kept in step the same way: piece-square values with material
+     * (white minus black) for the midgame and the endgame, the game phase, and a Zobrist
+     * key of the pawns alone for caching pawn structure scores.
+     */
+    private transient int midgameScore = 0;
+    private transient int endgameScore = 0;
+    private transient int phase = 0;
+    private transient long pawnKey = 0L;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING = 15;
+
+    /*
+     * Castling rights each square keeps when a piece moves from or to it. Moving the
+     * king or a rook, or capturing a rook on its home square, drops the matching rights.
+     */
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[Bitboard.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[Bitboard.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[Bitboard.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[Bitboard.square(8, 1)] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[Bitboard.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[Bitboard.square(8, 8)] &= ~BLACK_KINGSIDE;
     }
 
-    public void setWhiteKing(ChessPosition whiteKing) {
-        this.whiteKing = whiteKing;
+    private int castlingRights = ALL_CASTLING;
+    private int enPassantSquare = -1;
+
+    /*
+     * Undo records for makeMove, one entry per move still on the board. Each int packs
+     * the move's squares and flags with the castling rights and en passant square from
+     * before the move; the piece arrays hold the captured piece and the piece that
+     * moved (so a promoted pawn comes back as a pawn).
+     */
+    private static final int EN_PASSANT_FLAG = 1;
+    private static final int CASTLE_FLAG = 2;
+    private transient int[] undoStack = new int[32];
+    private transient ChessPiece[] capturedStack = new ChessPiece[32];
+    private transient ChessPiece[] movedStack = new ChessPiece[32];
+    private transient int undoCount = 0;
+
+    public ChessPosition getWhiteKing() {
+        return kingPosition(ChessGame.TeamColor.WHITE);
     }
 
     public ChessPosition getBlackKing() {
-        return blackKing;
+        return kingPosition(ChessGame.TeamColor.BLACK);
     }
 
-    public void setBlackKing(ChessPosition blackKing) {
-        this.blackKing = blackKing;
+    private ChessPosition kingPosition(ChessGame.TeamColor color) {
+        int square = getKingSquare(color);
+        if (square < 0) {
+            return null;
+        }
+        return Bitboard.position(square);
     }
 
     public void setBoard(ChessPiece[][] board) {
@@ -39,6 +96,232 @@ public class ChessBoard implements Cloneable {
     public ChessBoard() {
     }
 
+    private void index() {
+        if (indexedBoard == board) {
+            return;
+        }
+        pieceBoards = new long[12];
+        colorBoards = new long[2];
+        occupied = 0L;
+        pieceKey = 0L;
+        midgameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        pawnKey = 0L;
+        for (int square = 0; square < 64; square++) {
+            var piece = board[square >>> 3][square & 7];
+            if (piece != null) {
+                setBits(square, piece);
+            }
+        }
+        indexedBoard = board;
+    }
+
+    private void setBits(int square, ChessPiece piece) {
+        long bit = Bitboard.bit(square);
+        int pieceIndex = Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBoards[pieceIndex] |= bit;
+        colorBoards[piece.getTeamColor().ordinal()] |= bit;
+        occupied |= bit;
+        pieceKey ^= Zobrist.piece(pieceIndex, square);
+        midgameScore += PieceSquareTables.midgame(pieceIndex, square);
+        endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+        phase += PieceSquareTables.phase(pieceIndex);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(pieceIndex, square);
+        }
+    }
+
+    private void clearBits(int square, ChessPiece piece) {
+        long bit = ~Bitboard.bit(square);
+        int pieceIndex = Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieceBoards[pieceIndex] &= bit;
+        colorBoards[piece.getTeamColor().ordinal()] &= bit;
+        occupied &= bit;
+        pieceKey ^= Zobrist.piece(pieceIndex, square);
+        midgameScore -= PieceSquareTables.midgame(pieceIndex, square);
+        endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+        phase -= PieceSquareTables.phase(pieceIndex);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            pawnKey ^= Zobrist.piece(pieceIndex, square);
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces, castling rights and en passant file. The
+     * piece part is kept up to date as pieces are added and removed, so this is a few
+     * XORs rather than a walk over the board. The side to move is not part of the
+     * board; use {@link #getKey(ChessGame.TeamColor)} or ChessGame.getPositionKey()
+     * when it matters.
+     *
+     * @return 64-bit key of this board
+     */
+    public long getKey() {
+        index();
+        long key = pieceKey ^ Zobrist.castling(castlingRights);
+        if (enPassantSquare >= 0 && enPassantCapturePossible()) {
+            key ^= Zobrist.enPassantFile(enPassantSquare);
+        }
+        return key;
+    }
+
+    /**
+     * @return the Zobrist key of this board with the given team to move
+     */
+    public long getKey(ChessGame.TeamColor toMove) {
+        return getKey() ^ Zobrist.side(toMove);
+    }
+
+    /**
+     * @return the Zobrist key of just the pawns, for caching pawn structure evaluation
+     */
+    public long getPawnKey() {
+        index();
+        return pawnKey;
+    }
+
+    /**
+     * @return the sum of {@link PieceSquareTables#midgame} over every piece; positive favors white
+     */
+    public int getMidgameScore() {
+        index();
+        return midgameScore;
+    }
+
+    /**
+     * @return the sum of {@link PieceSquareTables#endgame} over every piece; positive favors white
+     */
+    public int getEndgameScore() {
+        index();
+        return endgameScore;
+    }
+
+    /**
+     * @return how much non-pawn material is left, from 0 up to about
+     * {@link PieceSquareTables#MAX_PHASE} at the start of the game
+     */
+    public int getPhase() {
+        index();
+        return phase;
+    }
+
+    /*
+     * The en passant file only counts toward the key when a pawn could actually take
+     * there, so a double step nobody can answer doesn't make an otherwise identical
+     * position look different.
+     */
+    private boolean enPassantCapturePossible() {
+        var jumper = enPassantSquare < 32 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        long capturers = pieceBoards[Bitboard.pieceIndex(jumper.opponent(), ChessPiece.PieceType.PAWN)];
+        return (AttackTables.pawnAttacks(jumper, enPassantSquare) & capturers) != 0;
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        index();
+        return pieceBoards[Bitboard.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return bitboard of every square holding a piece of the given color
+     */
+    public long getPieces(ChessGame.TeamColor color) {
+        index();
+        return colorBoards[color.ordinal()];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    public long getOccupied() {
+        index();
+        return occupied;
+    }
+
+    /**
+     * @return the square index of the given team's king, or -1 if it has no king
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long king = getPieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * Determines whether any piece of the given team attacks a square, by looking
+     * outward from the square along rook and bishop rays and knight, king and pawn
+     * offsets for a matching enemy piece.
+     *
+     * @param square the square index (0 = a1, 63 = h8)
+     * @param byColor the attacking team
+     * @return True if the square is attacked
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        index();
+        int base = byColor.ordinal() * 6;
+        if ((AttackTables.pawnAttacks(byColor.opponent(), square)
+                & pieceBoards[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0
+                || (AttackTables.knightAttacks(square) & pieceBoards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (AttackTables.kingAttacks(square) & pieceBoards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieceBoards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long rooks = pieceBoards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        long bishops = pieceBoards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return (AttackTables.rookAttacks(square, occupied) & rooks) != 0
+                || (AttackTables.bishopAttacks(square, occupied) & bishops) != 0;
+    }
+
+    /**
+     * Finds every piece of the given team that attacks a square, with sliding attacks
+     * computed against the supplied occupancy instead of the board's own. Passing an
+     * occupancy with pieces lifted off lets callers ask what would attack the square
+     * after a move without playing it.
+     *
+     * @return bitboard of the attacking pieces
+     */
+    public long attackersTo(int square, ChessGame.TeamColor byColor, long occupied) {
+        index();
+        int base = byColor.ordinal() * 6;
+        long queens = pieceBoards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (AttackTables.pawnAttacks(byColor.opponent(), square) & pieceBoards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (AttackTables.knightAttacks(square) & pieceBoards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (AttackTables.kingAttacks(square) & pieceBoards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (AttackTables.rookAttacks(square, occupied) & (pieceBoards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (AttackTables.bishopAttacks(square, occupied) & (pieceBoards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @return True if the given team's king is attacked; a team with no king is never in check
+     */
+    public boolean isInCheck(ChessGame.TeamColor color) {
+        int king = getKingSquare(color);
+        return king >= 0 && isSquareAttacked(king, color.opponent());
+    }
+
+    /**
+     * Gets the piece on a square index (0 = a1, 63 = h8)
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /**
+     * Puts a piece on a square index (0 = a1, 63 = h8), or clears it if piece is null
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        index();
+        var old = board[square >>> 3][square & 7];
+        if (old != null) {
+            clearBits(square, old);
+        }
+        board[square >>> 3][square & 7] = piece;
+        if (piece != null) {
+            setBits(square, piece);
+        }
+    }
+
     @Override
     public String toString() {
         var builder = new StringBuilder();
@@ -55,12 +338,15 @@ public class ChessBoard implements Cloneable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        index();
+        that.index();
+        return pieceKey == that.pieceKey && Objects.deepEquals(board, that.board);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        index();
+        return (int) (pieceKey ^ (pieceKey >>> 32));
     }
 
     @Override
@@ -72,12 +358,144 @@ public class ChessBoard implements Cloneable {
                 gameState[i] = Arrays.copyOf(clone.getBoard()[i], 8);
             }
             clone.board = gameState;
+            if (indexedBoard == board) {
+                clone.pieceBoards = pieceBoards.clone();
+                clone.colorBoards = colorBoards.clone();
+                clone.indexedBoard = gameState;
+            }
+            clone.undoStack = undoStack.clone();
+            clone.capturedStack = capturedStack.clone();
+            clone.movedStack = movedStack.clone();
             return clone;
         } catch (CloneNotSupportedException e) {
             throw new AssertionError();
         }
     }
 
+    /**
+     * @return the castling rights still available, as a mask of WHITE_KINGSIDE,
+     * WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE
+     */
+    public int getCastlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int castlingRights) {
+        this.castlingRights = castlingRights;
+    }
+
+    /**
+     * @return the square a pawn can capture onto en passant, or -1 if there is none
+     */
+    public int getEnPassantSquare() {
+        return enPassantSquare;
+    }
+
+    public void setEnPassantSquare(int enPassantSquare) {
+        this.enPassantSquare = enPassantSquare;
+    }
+
+    /**
+     * Plays a move on the board, including the rook hop for castling, the captured
+     * pawn for en passant and promotion, and records what is needed to take it back.
+     * The move is not checked for legality.
+     *
+     * @param move the move to play
+     */
+    public void makeMove(ChessMove move) {
+        makeMove(Move.encode(move));
+    }
+
+    /**
+     * Plays an int-encoded move (see {@link Move}) the same way as makeMove(ChessMove),
+     * without allocating.
+     *
+     * @param move the encoded move to play
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        var piece = getPiece(from);
+        var captured = getPiece(to);
+        int capturedSquare = to;
+        int flags = 0;
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && captured == null && ((from ^ to) & 7) != 0) {
+            capturedSquare = (from & ~7) | (to & 7);
+            captured = getPiece(capturedSquare);
+            flags = EN_PASSANT_FLAG;
+        } else if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            flags = CASTLE_FLAG;
+        }
+        pushUndo(from, to, flags, piece, captured);
+
+        if (captured != null) {
+            addPiece(capturedSquare, null);
+        }
+        addPiece(from, null);
+        var promotion = Move.promotion(move);
+        if (promotion != null) {
+            addPiece(to, ChessPiece.of(piece.getTeamColor(), promotion));
+        } else {
+            addPiece(to, piece);
+        }
+        if (flags == CASTLE_FLAG) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = (from + to) / 2;
+            addPiece(rookTo, getPiece(rookFrom));
+            addPiece(rookFrom, null);
+        }
+
+        castlingRights &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN && Math.abs(to - from) == 16) {
+            enPassantSquare = (from + to) / 2;
+        } else {
+            enPassantSquare = -1;
+        }
+    }
+
+    /**
+     * Takes back the last move played with makeMove, restoring the pieces, castling
+     * rights and en passant square exactly as they were.
+     */
+    public void unmakeMove() {
+        undoCount--;
+        int record = undoStack[undoCount];
+        var moved = movedStack[undoCount];
+        var captured = capturedStack[undoCount];
+        movedStack[undoCount] = null;
+        capturedStack[undoCount] = null;
+        int from = record & 63;
+        int to = (record >>> 6) & 63;
+        int flags = (record >>> 12) & 3;
+        castlingRights = (record >>> 14) & 15;
+        enPassantSquare = ((record >>> 18) & 127) - 1;
+
+        if (flags == CASTLE_FLAG) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = (from + to) / 2;
+            addPiece(rookFrom, getPiece(rookTo));
+            addPiece(rookTo, null);
+        }
+        addPiece(to, null);
+        addPiece(from, moved);
+        if (captured != null) {
+            addPiece(flags == EN_PASSANT_FLAG ? (from & ~7) | (to & 7) : to, captured);
+        }
+    }
+
+    private void pushUndo(int from, int to, int flags, ChessPiece moved, ChessPiece captured) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+            capturedStack = Arrays.copyOf(capturedStack, undoCount * 2);
+            movedStack = Arrays.copyOf(movedStack, undoCount * 2);
+        }
+        undoStack[undoCount] = from | (to << 6) | (flags << 12) | (castlingRights << 14)
+                | ((enPassantSquare + 1) << 18);
+        movedStack[undoCount] = moved;
+        capturedStack[undoCount] = captured;
+        undoCount++;
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -85,7 +503,7 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow()-1][position.getColumn()-1] = piece;
+        addPiece(Bitboard.square(position), piece);
     }
 
     /**
@@ -100,6 +518,10 @@ public class ChessBoard implements Cloneable {
     }
 
 
+    /**
+     * @return the board as rows of pieces, indexed [row-1][col-1]. This is a read
+     * view; change the board through addPiece so the bitboards stay in step
+     */
     public ChessPiece[][] getBoard() {
         return board;
     }
@@ -110,33 +532,23 @@ public class ChessBoard implements Cloneable {
      */
     public void resetBoard() {
         board = new ChessPiece[8][8];
-        whiteKing = new ChessPosition(1, 5);
-        blackKing = new ChessPosition(8, 5);
+        castlingRights = ALL_CASTLING;
+        enPassantSquare = -1;
 
         for (int x = 1; x < 9; x++) {
-            var whitePiece = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            var blackPiece = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
-            addPiece(new ChessPosition(2, x), whitePiece);
-            addPiece(new ChessPosition(7, x), blackPiece);
+            addPiece(ChessPosition.of(2, x), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, x), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
         int y = 1;
         for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
-            var rookPiece = new ChessPiece(color, ChessPiece.PieceType.ROOK);
-            var knightPiece = new ChessPiece(color, ChessPiece.PieceType.KNIGHT);
-            var bishopPiece = new ChessPiece(color, ChessPiece.PieceType.BISHOP);
-            var kingPiece = new ChessPiece(color, ChessPiece.PieceType.KING);
-            var queenPiece = new ChessPiece(color, ChessPiece.PieceType.QUEEN);
-            var rook2Piece = new ChessPiece(color, ChessPiece.PieceType.ROOK);
-            var knight2Piece = new ChessPiece(color, ChessPiece.PieceType.KNIGHT);
-            var bishop2Piece = new ChessPiece(color, ChessPiece.PieceType.BISHOP);
-            addPiece(new ChessPosition(y, 1), rookPiece);
-            addPiece(new ChessPosition(y, 2), knightPiece);
-            addPiece(new ChessPosition(y, 3), bishopPiece);
-            addPiece(new ChessPosition(y, 5), kingPiece);
-            addPiece(new ChessPosition(y, 4), queenPiece);
-            addPiece(new ChessPosition(y, 8), rook2Piece);
-            addPiece(new ChessPosition(y, 7), knight2Piece);
-            addPiece(new ChessPosition(y, 6), bishop2Piece);
+            addPiece(ChessPosition.of(y, 1), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
+            addPiece(ChessPosition.of(y, 2), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+            addPiece(ChessPosition.of(y, 3), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
+            addPiece(ChessPosition.of(y, 5), ChessPiece.of(color, ChessPiece.PieceType.KING));
+            addPiece(ChessPosition.of(y, 4), ChessPiece.of(color, ChessPiece.PieceType.QUEEN));
+            addPiece(ChessPosition.of(y, 8), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
+            addPiece(ChessPosition.of(y, 7), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+            addPiece(ChessPosition.of(y, 6), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
             y += 7;
         }
     }
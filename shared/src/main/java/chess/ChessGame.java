@@ -1,6 +1,6 @@
 package chess;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
 /**
@@ -13,12 +13,19 @@ public class ChessGame {
 
     private TeamColor currentPlayer = TeamColor.WHITE;
     private ChessBoard board = new ChessBoard();
-    private ChessPosition enPassantPosition = null;
-    private boolean whiteCanCastleRight = true;
-    private boolean blackCanCastleRight = true;
-    private boolean whiteCanCastleLeft = true;
-    private boolean blackCanCastleLeft = true;
     public boolean gameOver = false;
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    /*
+     * Keys of the positions since the last pawn move or capture, oldest first. No
+     * earlier position can come back, so this is all a repetition check has to scan.
+     */
+    private long[] history = new long[8];
+    private int historySize = 0;
+    private transient GameStatus status;
+    private transient ChessBoard statusBoard;
+    private transient long statusKey;
+    private transient int statusClock;
 
     public ChessGame() {
         board.resetBoard();
@@ -45,7 +52,40 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * The state of the game for the team whose turn it is
+     */
+    public enum GameStatus {
+        ONGOING,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE;
+
+        /**
+         * @return true if the game is over, by checkmate or by any kind of draw
+         */
+        public boolean isFinal() {
+            return this != ONGOING && this != CHECK;
+        }
+
+        /**
+         * @return true if the game is over and nobody won
+         */
+        public boolean isDraw() {
+            return isFinal() && this != CHECKMATE;
+        }
     }
 
     /**
@@ -56,25 +96,25 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        if (this.board.getPiece(startPosition) == null) {
-            return null;
-        }
         var piece = this.board.getPiece(startPosition);
-        var moves = piece.pieceMoves(this.board, startPosition);
-        ArrayList<ChessMove> newMoves = new ArrayList<>();
-        for (var move : moves) {
-            var newBoard = board.clone();
-            movePieceOnBoard(newBoard, move);
-            if (!inCheckHelper(newBoard, piece.getTeamColor())) {
-                newMoves.add(move);
-            }
-        }
-        castleMove(startPosition, newMoves);
-        var enPassant = enPassantMove(startPosition);
-        if (enPassant != null) {
-            newMoves.add(enPassant);
+        if (piece == null) {
+            return null;
         }
-        return newMoves;
+        var moves = new MoveList();
+        MoveGenerator.generate(board, piece.getTeamColor(), Bitboard.bit(Bitboard.square(startPosition)), moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Gets every valid move for a team
+     *
+     * @param teamColor the team to get valid moves for
+     * @return Set of valid moves for every piece on that team
+     */
+    public Collection<ChessMove> legalMoves(TeamColor teamColor) {
+        var moves = new MoveList();
+        MoveGenerator.generate(board, teamColor, moves);
+        return moves.toChessMoves();
     }
 
     /**
@@ -87,119 +127,114 @@ public class ChessGame {
         if (gameOver) {
             throw new InvalidMoveException("Game is finished");
         }
-        var moves = validMoves(move.getStartPosition());
-        if (moves == null) {
+        if (!onBoard(move.getStartPosition()) || !onBoard(move.getEndPosition())) {
+            throw new InvalidMoveException("Not on the board");
+        }
+        var piece = board.getPiece(move.getStartPosition());
+        if (piece == null) {
             throw new InvalidMoveException("In check");
         }
+        var moves = new MoveList();
+        MoveGenerator.generate(board, piece.getTeamColor(), Bitboard.bit(Bitboard.square(move.getStartPosition())), moves);
         if (moves.isEmpty()) {
             throw new InvalidMoveException("Not a piece there");
         }
-        if (board.getPiece(move.getStartPosition()).getTeamColor() != currentPlayer) {
+        if (piece.getTeamColor() != currentPlayer) {
             throw new InvalidMoveException("Wrong Team");
         }
-        if (!moves.contains(move)) {
+        int index = moves.indexOf(Move.encode(move));
+        if (index < 0) {
             throw new InvalidMoveException("Not a valid move");
         }
-        movePieceOnBoard(this.board, move);
-        if (currentPlayer.equals(TeamColor.WHITE)) {
-            setTeamTurn(TeamColor.BLACK);
-        } else {
-            setTeamTurn(TeamColor.WHITE);
+        int encoded = moves.get(index);
+        long key = getPositionKey();
+        board.makeMove(encoded);
+        if (currentPlayer == TeamColor.BLACK) {
+            fullmoveNumber++;
         }
-        var piece = board.getPiece(move.getEndPosition());
-        if (piece.getPieceType().equals(ChessPiece.PieceType.PAWN)) {
-            if (didPawnJump(move)) {
-                enPassantPosition = new ChessPosition(move.getEndPosition().getRow(), move.getEndPosition().getColumn());
-            } else {
-                enPassantPosition = null;
-            }
+        setTeamTurn(currentPlayer.opponent());
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN || Move.isCapture(encoded)) {
+            halfmoveClock = 0;
+            historySize = 0;
         } else {
-            enPassantPosition = null;
-        }
-        if (piece.getPieceType().equals(ChessPiece.PieceType.KING)) {
-            if (Math.abs(move.getEndPosition().getColumn() - move.getStartPosition().getColumn()) == 2) {
-                if (move.getEndPosition().equals(new ChessPosition(1, 3))) {
-                    var rookPiece = board.getPiece(new ChessPosition(1, 1));
-                    board.addPiece(new ChessPosition(1, 1), null);
-                    board.addPiece(new ChessPosition(1, 4), rookPiece);
-                }
-                if (move.getEndPosition().equals(new ChessPosition(1, 7))) {
-                    var rookPiece = board.getPiece(new ChessPosition(1, 8));
-                    board.addPiece(new ChessPosition(1, 8), null);
-                    board.addPiece(new ChessPosition(1, 6), rookPiece);
-                }
-                if (move.getEndPosition().equals(new ChessPosition(8, 3))) {
-                    var rookPiece = board.getPiece(new ChessPosition(8, 1));
-                    board.addPiece(new ChessPosition(8, 1), null);
-                    board.addPiece(new ChessPosition(8, 4), rookPiece);
-                }
-                if (move.getEndPosition().equals(new ChessPosition(8, 7))) {
-                    var rookPiece = board.getPiece(new ChessPosition(8, 8));
-                    board.addPiece(new ChessPosition(8, 8), null);
-                    board.addPiece(new ChessPosition(8, 6), rookPiece);
-                }
+            halfmoveClock++;
+            if (historySize == history.length) {
+                history = Arrays.copyOf(history, Math.max(8, historySize * 2));
             }
+            history[historySize++] = key;
         }
+    }
 
-        updateCastle(piece, move.getStartPosition());
+    /**
+     * @return the number of moves since the last pawn move or capture, counting each
+     * team's move separately
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
     }
 
+    void setHalfmoveClock(int halfmoveClock) {
+        this.halfmoveClock = halfmoveClock;
+    }
 
-    private void movePieceOnBoard(ChessBoard newBoard, ChessMove move) {
-        if (move.getPromotionPiece() != null) {
-            ChessPiece piece = new ChessPiece(newBoard.getPiece(move.getStartPosition()).getTeamColor(), move.getPromotionPiece());
-            newBoard.addPiece(move.getEndPosition(), piece);
-            newBoard.addPiece(move.getStartPosition(), null);
-        } else {
-            ChessPiece piece = newBoard.getPiece(move.getStartPosition());
-            if (piece.getPieceType().equals(ChessPiece.PieceType.KING)) {
-                if (piece.getTeamColor().equals(TeamColor.WHITE)) {
-                    newBoard.setWhiteKing(move.getEndPosition());
-                } else {
-                    newBoard.setBlackKing(move.getEndPosition());
-                }
-            }
-            if (piece.getPieceType().equals(ChessPiece.PieceType.PAWN)
-                    && move.getStartPosition().getColumn() != move.getEndPosition().getColumn()
-                    && board.getPiece(move.getEndPosition()) == null) {
-                var position = new ChessPosition(move.getStartPosition().getRow(), move.getEndPosition().getColumn());
-                newBoard.addPiece(position, null);
-            }
-            newBoard.addPiece(move.getEndPosition(), piece);
-            newBoard.addPiece(move.getStartPosition(), null);
+    /**
+     * @return the number of the current move, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
-        }
+    void setFullmoveNumber(int fullmoveNumber) {
+        this.fullmoveNumber = fullmoveNumber;
     }
 
+    /**
+     * @return the number of moves played so far, counting each team's move separately
+     * and going by the move number, so a game set up from FEN keeps its place
+     */
+    public int getPly() {
+        return (fullmoveNumber - 1) * 2 + (currentPlayer == TeamColor.BLACK ? 1 : 0);
+    }
 
-    private boolean inCheckHelper(ChessBoard board, TeamColor teamColor) {
-        setKingsPosition(board);
-        ChessPosition kingPosition;
-        if (teamColor.equals(TeamColor.WHITE)) {
-            kingPosition = board.getWhiteKing();
-        } else {
-            kingPosition = board.getBlackKing();
-        }
-        for (int x = 1; x < 9; x++) {
-            for (int y = 1; y < 9; y++) {
-                var position = new ChessPosition(y, x);
-                if (board.getPiece(position) != null) {
-                    var piece = board.getPiece(position);
-                    var moves = piece.pieceMoves(board, position);
-                    if (piece.getTeamColor() != teamColor
-                            && (moves.contains(new ChessMove(position, kingPosition, null))
-                            || moves.contains(new ChessMove(position, kingPosition, ChessPiece.PieceType.QUEEN))
-                            || moves.contains(new ChessMove(position, kingPosition, ChessPiece.PieceType.ROOK))
-                            || moves.contains(new ChessMove(position, kingPosition, ChessPiece.PieceType.BISHOP))
-                            || moves.contains(new ChessMove(position, kingPosition, ChessPiece.PieceType.KNIGHT)))) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    /**
+     * Gets the keys of the positions since the last pawn move or capture, oldest first.
+     * FEN leaves these out, so they must be kept alongside it for repetitions to be
+     * seen in a game loaded from FEN.
+     *
+     * @return a copy of the keys
+     */
+    public long[] getPositionHistory() {
+        return Arrays.copyOf(history, historySize);
     }
 
+    /**
+     * Restores the keys returned by {@link #getPositionHistory()}
+     *
+     * @param keys the keys of earlier positions, oldest first
+     */
+    public void setPositionHistory(long[] keys) {
+        history = Arrays.copyOf(keys, Math.max(8, keys.length));
+        historySize = keys.length;
+        status = null;
+    }
+
+    /**
+     * @return the game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
+    }
+
+    /**
+     * Builds a game from a position in Forsyth-Edwards Notation
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.load(fen);
+    }
+
+
     /**
      * Determines if the given team is in check
      *
@@ -207,24 +242,65 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        return inCheckHelper(this.board, teamColor);
+        return board.isInCheck(teamColor);
+    }
+
+
+    private boolean noMoves(TeamColor teamColor) {
+        if (teamColor == currentPlayer) {
+            var current = getStatus();
+            return current == GameStatus.CHECKMATE || current == GameStatus.STALEMATE;
+        }
+        var moves = new MoveList();
+        MoveGenerator.generate(board, teamColor, moves);
+        return moves.isEmpty();
     }
 
+    /**
+     * Gets whether the team whose turn it is is in check, checkmate or stalemate, or
+     * whether the game is drawn because the position has now come up three times or
+     * a hundred moves have passed without a pawn move or capture. Checkmate on the
+     * hundredth move still wins. The status is worked out with a single move
+     * generation and remembered until the position changes, so asking repeatedly
+     * after a move is free.
+     *
+     * @return the status for {@link #getTeamTurn()}
+     */
+    public GameStatus getStatus() {
+        long key = board.getKey(currentPlayer);
+        if (status != null && statusBoard == board && statusKey == key && statusClock == halfmoveClock) {
+            return status;
+        }
+        var moves = new MoveList();
+        MoveGenerator.generate(board, currentPlayer, moves);
+        boolean check = board.isInCheck(currentPlayer);
+        if (moves.isEmpty()) {
+            status = check ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        } else if (repetitions(key) >= 3) {
+            status = GameStatus.THREEFOLD_REPETITION;
+        } else if (halfmoveClock >= 100) {
+            status = GameStatus.FIFTY_MOVE_RULE;
+        } else {
+            status = check ? GameStatus.CHECK : GameStatus.ONGOING;
+        }
+        statusBoard = board;
+        statusKey = key;
+        statusClock = halfmoveClock;
+        return status;
+    }
 
-    private boolean noMoves(ChessBoard board, TeamColor teamColor) {
-        for (int x = 1; x < 9; x++) {
-            for (int y = 1; y < 9; y++) {
-                var position = new ChessPosition(y, x);
-                var piece = board.getPiece(position);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    var moves = validMoves(position);
-                    if (!moves.isEmpty()) {
-                        return false;
-                    }
-                }
+    /**
+     * Counts how many times a position with the given key has come up, including now.
+     * Only every second entry can match, since the team to move is part of the key.
+     */
+    private int repetitions(long key) {
+        int count = 1;
+        for (int i = historySize - 2; i >= 0; i -= 2) {
+            if (history[i] == key) {
+                count++;
             }
         }
-        return true;
+        return count;
     }
 
 
@@ -238,7 +314,7 @@ public class ChessGame {
         if (!isInCheck(teamColor)) {
             return false;
         }
-        if (noMoves(board, teamColor)) {
+        if (noMoves(teamColor)) {
             gameOver = true;
             return true;
         }
@@ -256,7 +332,7 @@ public class ChessGame {
         if (isInCheck(teamColor)) {
             return false;
         }
-        if (noMoves(board, teamColor)) {
+        if (noMoves(teamColor)) {
             gameOver = true;
             return true;
         }
@@ -264,35 +340,53 @@ public class ChessGame {
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Gets a 64-bit Zobrist key for the current position: the pieces, the team to
+     * move, castling rights and any en passant capture. Equal positions always have
+     * equal keys, and different positions almost never do.
+     *
+     * @return the position key
+     */
+    public long getPositionKey() {
+        return board.getKey(currentPlayer);
+    }
+
+    /**
+     * Makes an independent copy of this game, with the same board, castling rights,
+     * en passant square, team to move and move history, that can be changed or searched on another
+     * thread without touching this one
+     *
+     * @return the copy
+     */
+    public ChessGame copy() {
+        var copy = new ChessGame();
+        copy.board = board.clone();
+        copy.currentPlayer = currentPlayer;
+        copy.gameOver = gameOver;
+        copy.halfmoveClock = halfmoveClock;
+        copy.fullmoveNumber = fullmoveNumber;
+        copy.history = Arrays.copyOf(history, history.length);
+        copy.historySize = historySize;
+        return copy;
+    }
+
+    /**
+     * Sets this game's chessboard with a given board. The game's move history starts
+     * over from this position.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
-        this.board = null;
-        setKingsPosition(board);
         this.board = board;
-        whiteCanCastleRight = true;
-        blackCanCastleRight = true;
-        whiteCanCastleLeft = true;
-        blackCanCastleLeft = true;
+        board.setCastlingRights(ChessBoard.ALL_CASTLING);
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        historySize = 0;
+        status = null;
     }
 
 
-    private void setKingsPosition(ChessBoard board) {
-        for (int x = 1; x < 9; x++) {
-            for (int y = 1; y < 9; y++) {
-                var position = new ChessPosition(y, x);
-                var piece = board.getPiece(position);
-                if (piece != null && piece.getPieceType().equals(ChessPiece.PieceType.KING)) {
-                    if (piece.getTeamColor().equals(TeamColor.WHITE)) {
-                        board.setWhiteKing(position);
-                    } else {
-                        board.setBlackKing(position);
-                    }
-                }
-            }
-        }
+    private static boolean onBoard(ChessPosition position) {
+        return Bitboard.onBoard(position.getRow(), position.getColumn());
     }
 
     /**
@@ -303,157 +397,4 @@ public class ChessGame {
     public ChessBoard getBoard() {
         return board;
     }
-
-    private boolean didPawnJump(ChessMove move) {
-        return Math.abs(move.getEndPosition().getRow() - move.getStartPosition().getRow()) == 2;
-    }
-
-
-    private ChessMove enPassantMove(ChessPosition startPosition) {
-        if (enPassantPosition == null) {
-            return null;
-        }
-        var piece = board.getPiece(startPosition);
-        var pieceColor = piece.getTeamColor();
-        if (piece.getPieceType() != ChessPiece.PieceType.PAWN) {
-            return null;
-        }
-        ChessPosition endPosition = null;
-        if (pieceColor.equals(TeamColor.WHITE)) {
-            if (enPassantPosition.equals(new ChessPosition(startPosition.getRow(), startPosition.getColumn() + 1))) {
-                endPosition = new ChessPosition(startPosition.getRow() + 1, startPosition.getColumn() + 1);
-            }
-            if (enPassantPosition.equals(new ChessPosition(startPosition.getRow(), startPosition.getColumn() - 1))) {
-                endPosition = new ChessPosition(startPosition.getRow() + 1, startPosition.getColumn() - 1);
-            }
-
-        } else {
-            if (enPassantPosition.equals(new ChessPosition(startPosition.getRow(), startPosition.getColumn() + 1))) {
-                endPosition = new ChessPosition(startPosition.getRow() - 1, startPosition.getColumn() + 1);
-            }
-            if (enPassantPosition.equals(new ChessPosition(startPosition.getRow(), startPosition.getColumn() - 1))) {
-                endPosition = new ChessPosition(startPosition.getRow() - 1, startPosition.getColumn() - 1);
-            }
-        }
-        if (endPosition == null) {
-            return null;
-        }
-        return new ChessMove(startPosition, endPosition, null);
-    }
-
-
-    private void updateCastle(ChessPiece piece, ChessPosition startPosition) {
-        if (piece.getPieceType().equals(ChessPiece.PieceType.KING)) {
-            if (piece.getTeamColor().equals(TeamColor.WHITE)) {
-                whiteCanCastleRight = false;
-                whiteCanCastleLeft = false;
-            } else {
-                blackCanCastleRight = false;
-                blackCanCastleLeft = false;
-            }
-        } else if (piece.getPieceType().equals(ChessPiece.PieceType.ROOK)) {
-            if (piece.getTeamColor().equals(TeamColor.WHITE)) {
-                if (startPosition.equals(new ChessPosition(1, 1))) {
-                    whiteCanCastleLeft = false;
-                }
-                if (startPosition.equals(new ChessPosition(1, 8))) {
-                    whiteCanCastleRight = false;
-                } else {
-                    if (startPosition.equals(new ChessPosition(8, 1))) {
-                        blackCanCastleLeft = false;
-                    }
-                    if (startPosition.equals(new ChessPosition(8, 8))) {
-                        blackCanCastleRight = false;
-                    }
-                }
-
-            }
-        }
-    }
-
-    private void castleWhite(ChessPosition startPosition, Collection<ChessMove> moves, ChessPiece piece) {
-        if (whiteCanCastleLeft) {
-            if (board.getPiece(new ChessPosition(1, 1)) != null
-                    && board.getPiece(new ChessPosition(1, 1)).getTeamColor().equals(TeamColor.WHITE)
-                    && board.getPiece(new ChessPosition(1, 2)) == null
-                    && board.getPiece(new ChessPosition(1, 3)) == null
-                    && board.getPiece(new ChessPosition(1, 4)) == null) {
-                if (moves.contains(new ChessMove(startPosition, new ChessPosition(1, 4), null))) {
-                    var newBoard = board.clone();
-                    var move = new ChessMove(startPosition, new ChessPosition(1, 3), null);
-                    movePieceOnBoard(newBoard, move);
-                    if (!inCheckHelper(newBoard, piece.getTeamColor())) {
-                        moves.add(move);
-                    }
-                }
-            }
-        }
-        if (whiteCanCastleRight) {
-            if (board.getPiece(new ChessPosition(1, 8)) != null
-                    && board.getPiece(new ChessPosition(1, 8)).getTeamColor().equals(TeamColor.WHITE)
-                    && board.getPiece(new ChessPosition(1, 7)) == null
-                    && board.getPiece(new ChessPosition(1, 6)) == null) {
-                if (moves.contains(new ChessMove(startPosition, new ChessPosition(1, 6), null))) {
-                    var newBoard = board.clone();
-                    var move = new ChessMove(startPosition, new ChessPosition(1, 7), null);
-                    movePieceOnBoard(newBoard, move);
-                    if (!inCheckHelper(newBoard, piece.getTeamColor())) {
-                        moves.add(move);
-                    }
-                }
-            }
-        }
-    }
-
-    private void castleBlack(ChessPosition startPosition, Collection<ChessMove> moves, ChessPiece piece) {
-        if (blackCanCastleLeft) {
-            if (board.getPiece(new ChessPosition(8, 1)) != null
-                    && board.getPiece(new ChessPosition(8, 1)).getTeamColor().equals(TeamColor.BLACK)
-                    && board.getPiece(new ChessPosition(8, 2)) == null
-                    && board.getPiece(new ChessPosition(8, 3)) == null
-                    && board.getPiece(new ChessPosition(8, 4)) == null) {
-                if (moves.contains(new ChessMove(startPosition, new ChessPosition(8, 4), null))) {
-                    var newBoard = board.clone();
-                    var move = new ChessMove(startPosition, new ChessPosition(8, 3), null);
-                    movePieceOnBoard(newBoard, move);
-                    if (!inCheckHelper(newBoard, piece.getTeamColor())) {
-                        moves.add(move);
-                    }
-                }
-            }
-        }
-        if (blackCanCastleRight) {
-            if (board.getPiece(new ChessPosition(8, 8)) != null
-                    && board.getPiece(new ChessPosition(8, 8)).getTeamColor().equals(TeamColor.BLACK)
-                    && board.getPiece(new ChessPosition(8, 7)) == null
-                    && board.getPiece(new ChessPosition(8, 6)) == null) {
-                if (moves.contains(new ChessMove(startPosition, new ChessPosition(8, 6), null))) {
-                    var newBoard = board.clone();
-                    var move = new ChessMove(startPosition, new ChessPosition(8, 7), null);
-                    movePieceOnBoard(newBoard, move);
-                    if (!inCheckHelper(newBoard, piece.getTeamColor())) {
-                        moves.add(move);
-                    }
-                }
-            }
-        }
-    }
-
-
-    private void castleMove(ChessPosition startPosition, Collection<ChessMove> moves) {
-        var piece = board.getPiece(startPosition);
-        if (piece == null) {return;}
-        var pieceColor = piece.getTeamColor();
-        if (piece.getPieceType() != ChessPiece.PieceType.KING) {
-            return;
-        }
-        if (isInCheck(pieceColor)) {return;}
-        if (pieceColor.equals(TeamColor.WHITE)) {
-            castleWhite(startPosition, moves, piece);
-        } else {
-            castleBlack(startPosition, moves, piece);
-        }
-    }
-
-
 }
@@ -0,0 +1,318 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Hand-written Gson adapters for the chess classes, which stream fields directly
+ * instead of going through reflection.
+ * <p>
+ * A game written by these adapters reads back equal: the same position, castling
+ * rights, en passant square, move counters, repetition history and gameOver flag.
+ * They also read games stored in the older JSON, with its per-side castling flags
+ * and the position of the pawn that last moved two squares. The output uses the
+ * field names plain {@code new Gson()} does, so each side can read the other's JSON,
+ * but it is not guaranteed to match it byte for byte. Unknown fields are skipped
+ * and missing ones keep their defaults.
+ */
+public final class ChessJson {
+
+    private static final Gson GSON = register(new GsonBuilder()).create();
+
+    private ChessJson() {
+    }
+
+    /**
+     * @return a shared Gson with the chess adapters registered; Gson is thread-safe
+     */
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * Registers the chess adapters on a builder
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeAdapter(ChessGame.class, new GameAdapter().nullSafe())
+                .registerTypeAdapter(ChessBoard.class, new BoardAdapter().nullSafe())
+                .registerTypeAdapter(ChessPiece.class, new PieceAdapter().nullSafe())
+                .registerTypeAdapter(ChessPosition.class, new PositionAdapter().nullSafe())
+                .registerTypeAdapter(ChessMove.class, new MoveAdapter().nullSafe());
+    }
+
+    /**
+     * Besides its own format, reads the JSON that games were stored as before the board
+     * kept castling rights and the en passant square itself, when ChessGame had a flag
+     * for each castling right and the position of the pawn that had just moved two
+     * squares.
+     */
+    static class GameAdapter extends TypeAdapter<ChessGame> {
+        private final BoardAdapter boardAdapter = new BoardAdapter();
+        private final TypeAdapter<ChessPosition> positionAdapter = new PositionAdapter().nullSafe();
+
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            out.name("currentPlayer").value(game.getTeamTurn().name());
+            out.name("board");
+            boardAdapter.write(out, game.getBoard());
+            out.name("gameOver").value(game.gameOver);
+            out.name("halfmoveClock").value(game.getHalfmoveClock());
+            out.name("fullmoveNumber").value(game.getFullmoveNumber());
+            long[] history = game.getPositionHistory();
+            out.name("history").beginArray();
+            for (long key : history) {
+                out.value(key);
+            }
+            out.endArray();
+            out.name("historySize").value(history.length);
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            var game = new ChessGame();
+            var turn = ChessGame.TeamColor.WHITE;
+            ChessBoard board = null;
+            boolean gameOver = false;
+            int halfmoveClock = 0;
+            int fullmoveNumber = 1;
+            long[] history = new long[0];
+            int historySize = -1;
+            int legacyCastling = ChessBoard.ALL_CASTLING;
+            ChessPosition legacyEnPassant = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "currentPlayer" -> turn = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "board" -> board = boardAdapter.read(in);
+                    case "gameOver" -> gameOver = in.nextBoolean();
+                    case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                    case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                    case "history" -> history = readLongs(in);
+                    case "historySize" -> historySize = in.nextInt();
+                    case "whiteCanCastleRight" -> legacyCastling &= legacyRight(in, ChessBoard.WHITE_KINGSIDE);
+                    case "whiteCanCastleLeft" -> legacyCastling &= legacyRight(in, ChessBoard.WHITE_QUEENSIDE);
+                    case "blackCanCastleRight" -> legacyCastling &= legacyRight(in, ChessBoard.BLACK_KINGSIDE);
+                    case "blackCanCastleLeft" -> legacyCastling &= legacyRight(in, ChessBoard.BLACK_QUEENSIDE);
+                    case "enPassantPosition" -> legacyEnPassant = positionAdapter.read(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (board != null) {
+                int castlingRights = board.getCastlingRights() & legacyCastling;
+                game.setBoard(board);
+                board.setCastlingRights(castlingRights);
+                if (legacyEnPassant != null) {
+                    board.setEnPassantSquare(legacyEnPassantSquare(legacyEnPassant));
+                }
+            }
+            game.setTeamTurn(turn);
+            game.gameOver = gameOver;
+            game.setHalfmoveClock(halfmoveClock);
+            game.setFullmoveNumber(fullmoveNumber);
+            if (historySize >= 0 && historySize < history.length) {
+                history = Arrays.copyOf(history, historySize);
+            }
+            game.setPositionHistory(history);
+            return game;
+        }
+
+        /**
+         * @return all castling rights if the legacy flag is set, otherwise all but right
+         */
+        private static int legacyRight(JsonReader in, int right) throws IOException {
+            return in.nextBoolean() ? ChessBoard.ALL_CASTLING : ChessBoard.ALL_CASTLING & ~right;
+        }
+
+        /**
+         * @return the square passed over by a pawn that just moved two squares
+         */
+        private static int legacyEnPassantSquare(ChessPosition pawn) {
+            int row = pawn.getRow() == 4 ? 3 : pawn.getRow() == 5 ? 6 : -1;
+            return Bitboard.onBoard(row, pawn.getColumn()) ? Bitboard.square(row, pawn.getColumn()) : -1;
+        }
+
+        private static long[] readLongs(JsonReader in) throws IOException {
+            var values = new long[8];
+            int size = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = in.nextLong();
+            }
+            in.endArray();
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    static class BoardAdapter extends TypeAdapter<ChessBoard> {
+        private final PieceAdapter pieceAdapter = new PieceAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            out.beginObject();
+            out.name("board").beginArray();
+            for (int row = 0; row < 8; row++) {
+                out.beginArray();
+                for (int col = 0; col < 8; col++) {
+                    var piece = board.getPiece(row * 8 + col);
+                    if (piece == null) {
+                        out.nullValue();
+                    } else {
+                        pieceAdapter.write(out, piece);
+                    }
+                }
+                out.endArray();
+            }
+            out.endArray();
+            out.name("castlingRights").value(board.getCastlingRights());
+            out.name("enPassantSquare").value(board.getEnPassantSquare());
+            out.endObject();
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            var board = new ChessBoard();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "board" -> readSquares(in, board);
+                    case "castlingRights" -> board.setCastlingRights(in.nextInt());
+                    case "enPassantSquare" -> board.setEnPassantSquare(in.nextInt());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return board;
+        }
+
+        private void readSquares(JsonReader in, ChessBoard board) throws IOException {
+            in.beginArray();
+            for (int row = 0; in.hasNext(); row++) {
+                in.beginArray();
+                for (int col = 0; in.hasNext(); col++) {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else if (row < 8 && col < 8) {
+                        board.addPiece(row * 8 + col, pieceAdapter.read(in));
+                    } else {
+                        in.skipValue();
+                    }
+                }
+                in.endArray();
+            }
+            in.endArray();
+        }
+    }
+
+    static class PieceAdapter extends TypeAdapter<ChessPiece> {
+        @Override
+        public void write(JsonWriter out, ChessPiece piece) throws IOException {
+            out.beginObject();
+            out.name("pieceColor").value(piece.getTeamColor().name());
+            out.name("type").value(piece.getPieceType().name());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPiece read(JsonReader in) throws IOException {
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                    case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new JsonParseException("A piece needs a pieceColor and a type");
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    static class PositionAdapter extends TypeAdapter<ChessPosition> {
+        @Override
+        public void write(JsonWriter out, ChessPosition position) throws IOException {
+            out.beginObject();
+            out.name("row").value(position.getRow());
+            out.name("col").value(position.getColumn());
+            out.endObject();
+        }
+
+        @Override
+        public ChessPosition read(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return Bitboard.onBoard(row, col) ? ChessPosition.of(row, col) : new ChessPosition(row, col);
+        }
+    }
+
+    static class MoveAdapter extends TypeAdapter<ChessMove> {
+        private final PositionAdapter positionAdapter = new PositionAdapter();
+
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.beginObject();
+            out.name("startPosition");
+            positionAdapter.nullSafe().write(out, move.getStartPosition());
+            out.name("endPosition");
+            positionAdapter.nullSafe().write(out, move.getEndPosition());
+            if (move.getPromotionPiece() != null) {
+                out.name("promotionPiece").value(move.getPromotionPiece().name());
+            }
+            out.endObject();
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = positionAdapter.nullSafe().read(in);
+                    case "endPosition" -> end = positionAdapter.nullSafe().read(in);
+                    case "promotionPiece" -> promotion = readPromotion(in);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessMove(start, end, promotion);
+        }
+
+        private static ChessPiece.PieceType readPromotion(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            return ChessPiece.PieceType.valueOf(in.nextString());
+        }
+    }
+}
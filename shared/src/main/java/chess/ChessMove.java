@@ -56,6 +56,9 @@ public class ChessMove implements Cloneable {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -67,7 +70,8 @@ public class ChessMove implements Cloneable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        int result = 31 * Objects.hashCode(startPosition) + Objects.hashCode(endPosition);
+        return 31 * result + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
     }
 
     @Override
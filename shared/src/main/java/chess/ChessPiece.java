@@ -1,8 +1,6 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -15,11 +13,31 @@ public class ChessPiece {
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            for (var type : PieceType.values()) {
+                PIECES[Bitboard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.pieceColor = pieceColor;
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance for a color and type. Pieces are immutable, so the
+     * board and move code reuse these instead of allocating new ones.
+     *
+     * @return the canonical piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboard.pieceIndex(pieceColor, type)];
+    }
+
     @Override
     public String toString() {
         return "ChessPiece{" + pieceColor + type + '}';
@@ -27,6 +45,9 @@ public class ChessPiece {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -36,7 +57,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        return Bitboard.pieceIndex(pieceColor, type);
     }
 
     /**
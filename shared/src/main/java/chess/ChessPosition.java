@@ -1,7 +1,5 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
@@ -13,6 +11,27 @@ public class ChessPosition {
     private final int row;
     private final int col;
 
+    private static final ChessPosition[] POSITIONS = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            POSITIONS[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
+    /**
+     * Gets the shared instance for a square, so hot code can look positions up
+     * instead of allocating them. Positions off the board get a fresh instance.
+     *
+     * @return the canonical position at the given row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[(row - 1) * 8 + (col - 1)];
+    }
+
     @Override
     public String toString() {
         return switch (col) {
@@ -30,6 +49,9 @@ public class ChessPosition {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -39,7 +61,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     public ChessPosition(int row, int col) {
@@ -0,0 +1,177 @@
+package chess;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, e.g. the starting position
+ * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ */
+public final class Fen {
+
+    private Fen() {
+    }
+
+    /**
+     * Builds a game from a FEN string. The piece placement and side to move are
+     * required; castling rights and the en passant square default to none, the
+     * halfmove clock to zero and the move number to one.
+     *
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame load(String fen) {
+        var fields = fen.trim().split("\\s+");
+        if (fields.length < 2) {
+            throw new IllegalArgumentException("FEN needs piece placement and side to move: " + fen);
+        }
+        var board = new ChessBoard();
+        int row = 8;
+        int col = 1;
+        for (char c : fields[0].toCharArray()) {
+            if (c == '/') {
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                if (!Bitboard.onBoard(row, col)) {
+                    throw new IllegalArgumentException("FEN piece off the board: " + fen);
+                }
+                var color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.of(color, pieceType(c)));
+                col++;
+            }
+        }
+
+        var game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(switch (fields[1]) {
+            case "w" -> ChessGame.TeamColor.WHITE;
+            case "b" -> ChessGame.TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("FEN side to move must be w or b: " + fen);
+        });
+        board.setCastlingRights(fields.length > 2 ? castlingRights(fields[2]) : 0);
+        board.setEnPassantSquare(fields.length > 3 ? square(fields[3]) : -1);
+        if (fields.length > 4) {
+            try {
+                game.setHalfmoveClock(Integer.parseInt(fields[4]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN halfmove clock must be a number: " + fen);
+            }
+        }
+        if (fields.length > 5) {
+            try {
+                game.setFullmoveNumber(Integer.parseInt(fields[5]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("FEN move number must be a number: " + fen);
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Writes a game's position as FEN. Castling rights and the en passant square are
+     * written as the board holds them, so loading the result gives a position with the
+     * same {@link ChessGame#getPositionKey() key}.
+     */
+    public static String write(ChessGame game) {
+        var board = game.getBoard();
+        var fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                var piece = board.getPiece(Bitboard.square(row, col));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                fen.append(letter(piece));
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) {
+            fen.append('K');
+        }
+        if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) {
+            fen.append('Q');
+        }
+        if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) {
+            fen.append('k');
+        }
+        if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) {
+            fen.append('q');
+        }
+
+        int enPassant = board.getEnPassantSquare();
+        fen.append(' ').append(enPassant < 0 ? "-" : Bitboard.position(enPassant).toString());
+        fen.append(' ').append(game.getHalfmoveClock());
+        fen.append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    private static char letter(ChessPiece piece) {
+        char c = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(c) : c;
+    }
+
+    private static ChessPiece.PieceType pieceType(char c) {
+        return switch (Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Unknown FEN piece: " + c);
+        };
+    }
+
+    private static int castlingRights(String field) {
+        int rights = 0;
+        for (char c : field.toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                case '-' -> 0;
+                default -> throw new IllegalArgumentException("Unknown FEN castling right: " + c);
+            };
+        }
+        return rights;
+    }
+
+    private static int square(String field) {
+        if (field.equals("-")) {
+            return -1;
+        }
+        if (field.length() != 2) {
+            throw new IllegalArgumentException("Bad FEN square: " + field);
+        }
+        int col = field.charAt(0) - 'a' + 1;
+        int row = field.charAt(1) - '0';
+        if (!Bitboard.onBoard(row, col)) {
+            throw new IllegalArgumentException("Bad FEN square: " + field);
+        }
+        return Bitboard.square(row, col);
+    }
+}
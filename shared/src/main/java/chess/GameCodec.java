@@ -0,0 +1,115 @@
+package chess;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a game into a few dozen bytes and back.
+ * <p>
+ * The layout is a version byte; the 64 squares from a1 to h8 as nibbles, two to a byte
+ * with the lower square in the low nibble, holding 0 for empty or the piece's
+ * {@link Bitboard#pieceIndex} plus one; a flags byte with the team to move, whether
+ * the game is over and the castling rights; the en passant square, or 0xFF for none;
+ * the halfmove clock and move number as unsigned shorts; and finally an unsigned
+ * short count of position keys followed by the keys. Without history a game is 41 bytes.
+ */
+public final class GameCodec {
+
+    private static final byte VERSION = 1;
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 2;
+    private static final int HEADER_BYTES = 1 + 32 + 1 + 1 + 2 + 2 + 2;
+
+    private GameCodec() {
+    }
+
+    /**
+     * Encodes a game with its repetition history
+     */
+    public static byte[] encode(ChessGame game) {
+        return encode(game, true);
+    }
+
+    /**
+     * @param withHistory whether to include the keys needed to spot repetitions; a
+     *                    game decoded without them only sees repetitions from then on
+     */
+    public static byte[] encode(ChessGame game, boolean withHistory) {
+        var board = game.getBoard();
+        long[] history = withHistory ? game.getPositionHistory() : new long[0];
+        var buffer = ByteBuffer.allocate(HEADER_BYTES + history.length * Long.BYTES);
+        buffer.put(VERSION);
+        for (int square = 0; square < 64; square += 2) {
+            buffer.put((byte) (nibble(board.getPiece(square)) | nibble(board.getPiece(square + 1)) << 4));
+        }
+        int flags = board.getCastlingRights() << 4;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= BLACK_TO_MOVE;
+        }
+        if (game.gameOver) {
+            flags |= GAME_OVER;
+        }
+        buffer.put((byte) flags);
+        buffer.put((byte) board.getEnPassantSquare());
+        buffer.putShort((short) game.getHalfmoveClock());
+        buffer.putShort((short) game.getFullmoveNumber());
+        buffer.putShort((short) history.length);
+        for (long key : history) {
+            buffer.putLong(key);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes were not written by {@link #encode}
+     */
+    public static ChessGame decode(byte[] bytes) {
+        try {
+            var buffer = ByteBuffer.wrap(bytes);
+            if (buffer.get() != VERSION) {
+                throw new IllegalArgumentException("Unknown game encoding version " + bytes[0]);
+            }
+            var board = new ChessBoard();
+            for (int square = 0; square < 64; square += 2) {
+                int pair = buffer.get();
+                board.addPiece(square, piece(pair & 0xF));
+                board.addPiece(square + 1, piece((pair >>> 4) & 0xF));
+            }
+            int flags = buffer.get() & 0xFF;
+            int enPassant = buffer.get();
+
+            var game = new ChessGame();
+            game.setBoard(board);
+            board.setCastlingRights(flags >>> 4);
+            board.setEnPassantSquare(enPassant < 0 ? -1 : enPassant);
+            game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+            game.gameOver = (flags & GAME_OVER) != 0;
+            game.setHalfmoveClock(Short.toUnsignedInt(buffer.getShort()));
+            game.setFullmoveNumber(Short.toUnsignedInt(buffer.getShort()));
+            var history = new long[Short.toUnsignedInt(buffer.getShort())];
+            for (int i = 0; i < history.length; i++) {
+                history[i] = buffer.getLong();
+            }
+            game.setPositionHistory(history);
+            return game;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Game encoding is truncated", e);
+        }
+    }
+
+    private static int nibble(ChessPiece piece) {
+        return piece == null ? 0 : Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+    }
+
+    private static ChessPiece piece(int nibble) {
+        if (nibble == 0) {
+            return null;
+        }
+        if (nibble > 12) {
+            throw new IllegalArgumentException("Bad piece in game encoding: " + nibble);
+        }
+        var colors = ChessGame.TeamColor.values();
+        var types = ChessPiece.PieceType.values();
+        return ChessPiece.of(colors[(nibble - 1) / 6], types[(nibble - 1) % 6]);
+    }
+}
@@ -0,0 +1,81 @@
+package chess;
+
+/**
+ * Packs a chess move into a single int so move generation and search don't have to
+ * allocate a ChessMove for every candidate.
+ * <p>
+ * Bits 0-5 hold the start square, 6-11 the end square (0 = a1, 63 = h8), 12-14 the
+ * promotion piece (0 for none, otherwise PieceType ordinal + 1), and 15-17 flags
+ * describing the move. Two encodings are the same move if they agree on the low
+ * 15 bits; the flags are hints filled in by the generator. The value 0 (a1 to a1) is
+ * never a real move and stands for "no move".
+ */
+public final class Move {
+
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+
+    private static final int MOVE_MASK = (1 << 15) - 1;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionCode = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionCode << 12) | flags;
+    }
+
+    public static int encode(int from, int to) {
+        return from | (to << 6);
+    }
+
+    /**
+     * @return the encoding of a ChessMove, with no flags set
+     */
+    public static int encode(ChessMove move) {
+        return encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 12) & 7;
+        return code == 0 ? null : PIECE_TYPES[code - 1];
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & (CAPTURE | EN_PASSANT)) != 0;
+    }
+
+    /**
+     * @return True if both encodings describe the same move, ignoring flags
+     */
+    public static boolean same(int a, int b) {
+        return ((a ^ b) & MOVE_MASK) == 0;
+    }
+
+    /**
+     * Builds the ChessMove this encoding stands for
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboard.position(from(move)), Bitboard.position(to(move)), promotion(move));
+    }
+}
@@ -0,0 +1,202 @@
+package chess;
+
+/**
+ * Generates only legal moves for one team.
+ * <p>
+ * Pieces giving check and pieces pinned to their own king are found once per
+ * position. From there every piece's targets are cut down to what is legal: in check,
+ * non-king moves must capture the checker or block its ray (and only the king may move
+ * in double check); a pinned piece may only move along its pin; and the king may only
+ * step onto squares nothing attacks once it has left its square. En passant is the one
+ * move checked by lifting the pieces off, since it can uncover a rank attack.
+ */
+public final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT,
+            ChessPiece.PieceType.ROOK
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds every legal move for the given team to moves, encoded as described in {@link Move}
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor color, MoveList moves) {
+        generate(board, color, -1L, moves);
+    }
+
+    /**
+     * Adds the legal moves of the given team's pieces that stand on a square in
+     * fromMask. A team without a king has no check or pin restrictions.
+     *
+     * @param fromMask bitboard of the squares to generate moves from
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor color, long fromMask,
+                                MoveList moves) {
+        var enemy = color.opponent();
+        long ours = board.getPieces(color);
+        long occupied = board.getOccupied();
+        int king = board.getKingSquare(color);
+        long evasions = -1L;
+        long pinned = 0L;
+
+        if (king >= 0) {
+            long checkers = board.attackersTo(king, enemy, occupied);
+            if ((fromMask & Bitboard.bit(king)) != 0) {
+                addKingMoves(board, color, king, ours, occupied, moves);
+                if (checkers == 0) {
+                    addCastleMoves(board, color, king, occupied, moves);
+                }
+            }
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+            if (checkers != 0) {
+                evasions = checkers | AttackTables.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+            pinned = pinnedPieces(board, enemy, king, ours, occupied);
+        }
+
+        long pieces = ours & fromMask & ~board.getPieces(color, ChessPiece.PieceType.KING);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long allowed = evasions;
+            if ((pinned & Bitboard.bit(from)) != 0) {
+                allowed &= AttackTables.line(king, from);
+            }
+            var type = board.getPiece(from).getPieceType();
+            if (type == ChessPiece.PieceType.PAWN) {
+                addPawnMoves(board, color, from, king, occupied, allowed, moves);
+            } else {
+                long targets = AttackTables.attacks(type, color, from, occupied) & ~ours & allowed;
+                addMoves(from, targets, board.getPieces(enemy), moves);
+            }
+        }
+    }
+
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor enemy, int king, long ours,
+                                     long occupied) {
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (AttackTables.rookAttacks(king, 0L)
+                & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (AttackTables.bishopAttacks(king, 0L)
+                & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = AttackTables.between(king, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1) {
+                pinned |= blockers & ours;
+            }
+        }
+        return pinned;
+    }
+
+    private static void addKingMoves(ChessBoard board, ChessGame.TeamColor color, int king, long ours,
+                                     long occupied, MoveList moves) {
+        long targets = AttackTables.kingAttacks(king) & ~ours;
+        long withoutKing = occupied & ~Bitboard.bit(king);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.attackersTo(to, color.opponent(), withoutKing) == 0) {
+                moves.add(Move.encode(king, to, null, captureFlag(board, to)));
+            }
+        }
+    }
+
+    private static void addCastleMoves(ChessBoard board, ChessGame.TeamColor color, int king, long occupied,
+                                       MoveList moves) {
+        int home = color == ChessGame.TeamColor.WHITE ? Bitboard.square(1, 5) : Bitboard.square(8, 5);
+        if (king != home) {
+            return;
+        }
+        int rights = board.getCastlingRights();
+        long rooks = board.getPieces(color, ChessPiece.PieceType.ROOK);
+        var enemy = color.opponent();
+        int kingSide = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_KINGSIDE : ChessBoard.BLACK_KINGSIDE;
+        int queenSide = color == ChessGame.TeamColor.WHITE ? ChessBoard.WHITE_QUEENSIDE : ChessBoard.BLACK_QUEENSIDE;
+        if ((rights & kingSide) != 0 && (rooks & Bitboard.bit(home + 3)) != 0
+                && (occupied & AttackTables.between(home, home + 3)) == 0
+                && !board.isSquareAttacked(home + 1, enemy)
+                && !board.isSquareAttacked(home + 2, enemy)) {
+            moves.add(Move.encode(home, home + 2, null, Move.CASTLE));
+        }
+        if ((rights & queenSide) != 0 && (rooks & Bitboard.bit(home - 4)) != 0
+                && (occupied & AttackTables.between(home, home - 4)) == 0
+                && !board.isSquareAttacked(home - 1, enemy)
+                && !board.isSquareAttacked(home - 2, enemy)) {
+            moves.add(Move.encode(home, home - 2, null, Move.CASTLE));
+        }
+    }
+
+    private static void addPawnMoves(ChessBoard board, ChessGame.TeamColor color, int from, int king,
+                                     long occupied, long allowed, MoveList moves) {
+        var enemy = color.opponent();
+        long bit = Bitboard.bit(from);
+        long single;
+        long jump;
+        if (color == ChessGame.TeamColor.WHITE) {
+            single = (bit << 8) & ~occupied;
+            jump = ((single & (Bitboard.RANK_1 << 16)) << 8) & ~occupied;
+        } else {
+            single = (bit >>> 8) & ~occupied;
+            jump = ((single & (Bitboard.RANK_8 >>> 16)) >>> 8) & ~occupied;
+        }
+        long targets = (single | jump | (AttackTables.pawnAttacks(color, from) & board.getPieces(enemy))) & allowed;
+        boolean promotes = (targets & (Bitboard.RANK_1 | Bitboard.RANK_8)) != 0;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int flags = captureFlag(board, to);
+            if (promotes) {
+                for (var piece : PROMOTIONS) {
+                    moves.add(Move.encode(from, to, piece, flags));
+                }
+            } else {
+                moves.add(Move.encode(from, to, null, flags));
+            }
+        }
+
+        int target = board.getEnPassantSquare();
+        if (target < 0 || (AttackTables.pawnAttacks(color, from) & Bitboard.bit(target)) == 0) {
+            return;
+        }
+        int captured = (from & ~7) | (target & 7);
+        if ((board.getPieces(enemy, ChessPiece.PieceType.PAWN) & Bitboard.bit(captured)) == 0) {
+            return;
+        }
+        if (king >= 0) {
+            long after = (occupied & ~bit & ~Bitboard.bit(captured)) | Bitboard.bit(target);
+            if ((board.attackersTo(king, enemy, after) & ~Bitboard.bit(captured)) != 0) {
+                return;
+            }
+        }
+        moves.add(Move.encode(from, target, null, Move.EN_PASSANT));
+    }
+
+    private static void addMoves(int from, long targets, long enemies, MoveList moves) {
+        long captures = targets & enemies;
+        targets &= ~enemies;
+        while (captures != 0) {
+            int to = Long.numberOfTrailingZeros(captures);
+            captures &= captures - 1;
+            moves.add(Move.encode(from, to, null, Move.CAPTURE));
+        }
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(Move.encode(from, to));
+        }
+    }
+
+    private static int captureFlag(ChessBoard board, int to) {
+        return board.getPiece(to) != null ? Move.CAPTURE : 0;
+    }
+}
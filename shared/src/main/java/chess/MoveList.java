@@ -0,0 +1,84 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable list of int-encoded moves (see {@link Move}).
+ * <p>
+ * Lists are meant to be kept and reused with {@link #clear()}, so after the backing
+ * array has grown to fit a position's moves, filling it again allocates nothing.
+ * ChessMove objects are only built when {@link #toChessMoves()} is called.
+ */
+public class MoveList {
+
+    private int[] moves;
+    private int size = 0;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Drops every move from index size onward
+     */
+    public void truncate(int size) {
+        this.size = Math.min(this.size, size);
+    }
+
+    /**
+     * @return the index of a move matching the given encoding (flags ignored), or -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.same(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(int move) {
+        return indexOf(move) >= 0;
+    }
+
+    public List<ChessMove> toChessMoves() {
+        var list = new ArrayList<ChessMove>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(Move.toChessMove(moves[i]));
+        }
+        return list;
+    }
+}
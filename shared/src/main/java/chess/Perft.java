@@ -0,0 +1,174 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft").
+ * <p>
+ * Comparing the counts for well-known positions against their published values is
+ * the standard check that move generation, make and unmake are exactly right, and
+ * the time it takes is a direct measure of generator throughput. Running the class
+ * prints both for every reference position, single-threaded and with the root moves
+ * divided across threads.
+ */
+public class Perft {
+
+    /**
+     * A test position with its published node counts; nodes[0] is the count at depth 1
+     */
+    public record Position(String name, String fen, long... nodes) {
+        public int maxDepth() {
+            return nodes.length;
+        }
+
+        public long expected(int depth) {
+            return nodes[depth - 1];
+        }
+    }
+
+    public record Result(String name, int depth, long nodes, long nanos) {
+        public long nodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+    }
+
+    public static final List<Position> REFERENCE_POSITIONS = List.of(
+            new Position("start", "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    20, 400, 8_902, 197_281, 4_865_609, 119_060_324),
+            new Position("kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862, 4_085_603, 193_690_690),
+            new Position("endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238, 674_624, 11_030_083),
+            new Position("promotions", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467, 422_333, 15_833_292),
+            new Position("talkchess", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379, 2_103_487, 89_941_194),
+            new Position("middlegame", "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890, 3_894_594, 164_075_551)
+    );
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor toMove;
+    private MoveList[] lists = new MoveList[0];
+
+    /**
+     * Sets up a counter on a copy of the game's board, so the game is never changed
+     */
+    public Perft(ChessGame game) {
+        this(game.getBoard().clone(), game.getTeamTurn());
+    }
+
+    private Perft(ChessBoard board, ChessGame.TeamColor toMove) {
+        this.board = board;
+        this.toMove = toMove;
+    }
+
+    /**
+     * @return the number of leaf nodes at the given depth
+     */
+    public long count(int depth) {
+        if (lists.length < depth) {
+            lists = new MoveList[depth];
+            for (int i = 0; i < depth; i++) {
+                lists[i] = new MoveList();
+            }
+        }
+        return count(toMove, depth);
+    }
+
+    private long count(ChessGame.TeamColor color, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        var moves = lists[depth - 1];
+        moves.clear();
+        MoveGenerator.generate(board, color, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += count(color.opponent(), depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes under each root move separately. In parallel mode each
+     * root move is counted on its own copy of the board on the common fork-join pool.
+     *
+     * @return leaf count per root move, in generation order
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, boolean parallel) {
+        var root = new MoveList();
+        var board = game.getBoard();
+        MoveGenerator.generate(board, game.getTeamTurn(), root);
+        var next = game.getTeamTurn().opponent();
+        var stream = IntStream.range(0, root.size());
+        if (parallel) {
+            stream = stream.parallel();
+        }
+        long[] counts = new long[root.size()];
+        stream.forEach(i -> {
+            var copy = board.clone();
+            copy.makeMove(root.get(i));
+            counts[i] = new Perft(copy, next).count(depth - 1);
+        });
+        var result = new LinkedHashMap<ChessMove, Long>();
+        for (int i = 0; i < root.size(); i++) {
+            result.put(Move.toChessMove(root.get(i)), counts[i]);
+        }
+        return result;
+    }
+
+    public static Result run(Position position, int depth, boolean parallel) {
+        var game = Fen.load(position.fen());
+        long start = System.nanoTime();
+        long nodes;
+        if (parallel) {
+            nodes = divide(game, depth, true).values().stream().mapToLong(Long::longValue).sum();
+        } else {
+            nodes = new Perft(game).count(depth);
+        }
+        return new Result(position.name(), depth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs every reference position and prints nodes and nodes per second.
+     * Each position goes to the deepest published depth with at most maxNodes leaves
+     * (the first argument, 5,000,000 by default). Exits with status 1 on a wrong count.
+     */
+    public static void main(String[] args) {
+        long maxNodes = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000L;
+        boolean allCorrect = true;
+        for (boolean parallel : new boolean[]{false, true}) {
+            long totalNodes = 0;
+            long totalNanos = 0;
+            for (var position : REFERENCE_POSITIONS) {
+                int depth = 1;
+                while (depth < position.maxDepth() && position.expected(depth + 1) <= maxNodes) {
+                    depth++;
+                }
+                var result = run(position, depth, parallel);
+                boolean correct = result.nodes() == position.expected(depth);
+                allCorrect &= correct;
+                totalNodes += result.nodes();
+                totalNanos += result.nanos();
+                System.out.printf("%-8s %-10s depth %d  %,12d nodes  %8.1f ms  %,12d nps  %s%n",
+                        parallel ? "parallel" : "single", result.name(), depth, result.nodes(),
+                        result.nanos() / 1e6, result.nodesPerSecond(),
+                        correct ? "ok" : "WRONG (expected " + position.expected(depth) + ")");
+            }
+            System.out.printf("%-8s total  %,d nodes  %,d nps%n", parallel ? "parallel" : "single",
+                    totalNodes, new Result("total", 0, totalNodes, totalNanos).nodesPerSecond());
+        }
+        if (!allCorrect) {
+            System.exit(1);
+        }
+    }
+}
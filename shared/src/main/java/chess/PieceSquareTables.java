@@ -0,0 +1,157 @@
+package chess;
+
+/**
+ * Midgame and endgame values of every piece on every square, material included.
+ * <p>
+ * The tables below are laid out the way a board is printed, rank 8 first, from white's
+ * side. Black uses the same tables mirrored top to bottom, with the sign flipped, so
+ * a position's score is the plain sum over its pieces and positive favors white.
+ * {@link ChessBoard} keeps these sums up to date as pieces move.
+ */
+public final class PieceSquareTables {
+
+    /**
+     * Material in centipawns by PieceType ordinal: king, queen, bishop, knight, rook, pawn
+     */
+    private static final int[] MIDGAME_MATERIAL = {0, 900, 330, 320, 500, 100};
+    private static final int[] ENDGAME_MATERIAL = {0, 920, 320, 300, 520, 120};
+
+    /**
+     * How much each piece counts toward the game phase, by PieceType ordinal. The
+     * starting position adds up to {@link #MAX_PHASE}.
+     */
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    public static final int MAX_PHASE = 24;
+
+    private static final int[] KING_MIDGAME = {
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -30, -40, -40, -50, -50, -40, -40, -30,
+            -20, -30, -30, -40, -40, -30, -30, -20,
+            -10, -20, -20, -20, -20, -20, -20, -10,
+            20, 20, 0, 0, 0, 0, 20, 20,
+            20, 30, 10, 0, 0, 10, 30, 20
+    };
+    private static final int[] KING_ENDGAME = {
+            -50, -40, -30, -20, -20, -30, -40, -50,
+            -30, -20, -10, 0, 0, -10, -20, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 30, 40, 40, 30, -10, -30,
+            -30, -10, 20, 30, 30, 20, -10, -30,
+            -30, -30, 0, 0, 0, 0, -30, -30,
+            -50, -30, -30, -30, -30, -30, -30, -50
+    };
+    private static final int[] QUEEN = {
+            -20, -10, -10, -5, -5, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 5, 5, 5, 0, -10,
+            -5, 0, 5, 5, 5, 5, 0, -5,
+            0, 0, 5, 5, 5, 5, 0, -5,
+            -10, 5, 5, 5, 5, 5, 0, -10,
+            -10, 0, 5, 0, 0, 0, 0, -10,
+            -20, -10, -10, -5, -5, -10, -10, -20
+    };
+    private static final int[] BISHOP = {
+            -20, -10, -10, -10, -10, -10, -10, -20,
+            -10, 0, 0, 0, 0, 0, 0, -10,
+            -10, 0, 5, 10, 10, 5, 0, -10,
+            -10, 5, 5, 10, 10, 5, 5, -10,
+            -10, 0, 10, 10, 10, 10, 0, -10,
+            -10, 10, 10, 10, 10, 10, 10, -10,
+            -10, 5, 0, 0, 0, 0, 5, -10,
+            -20, -10, -10, -10, -10, -10, -10, -20
+    };
+    private static final int[] KNIGHT = {
+            -50, -40, -30, -30, -30, -30, -40, -50,
+            -40, -20, 0, 0, 0, 0, -20, -40,
+            -30, 0, 10, 15, 15, 10, 0, -30,
+            -30, 5, 15, 20, 20, 15, 5, -30,
+            -30, 0, 15, 20, 20, 15, 0, -30,
+            -30, 5, 10, 15, 15, 10, 5, -30,
+            -40, -20, 0, 5, 5, 0, -20, -40,
+            -50, -40, -30, -30, -30, -30, -40, -50
+    };
+    private static final int[] ROOK = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            5, 10, 10, 10, 10, 10, 10, 5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            -5, 0, 0, 0, 0, 0, 0, -5,
+            0, 0, 0, 5, 5, 0, 0, 0
+    };
+    private static final int[] PAWN_MIDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            10, 10, 20, 30, 30, 20, 10, 10,
+            5, 5, 10, 25, 25, 10, 5, 5,
+            0, 0, 0, 20, 20, 0, 0, 0,
+            5, -5, -10, 0, 0, -10, -5, 5,
+            5, 10, 10, -20, -20, 10, 10, 5,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+    private static final int[] PAWN_ENDGAME = {
+            0, 0, 0, 0, 0, 0, 0, 0,
+            80, 80, 80, 80, 80, 80, 80, 80,
+            50, 50, 50, 50, 50, 50, 50, 50,
+            30, 30, 30, 30, 30, 30, 30, 30,
+            15, 15, 15, 15, 15, 15, 15, 15,
+            5, 5, 5, 5, 5, 5, 5, 5,
+            0, 0, 0, 0, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private static final int[][] MIDGAME_LAYOUT = {KING_MIDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDGAME};
+    private static final int[][] ENDGAME_LAYOUT = {KING_ENDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_ENDGAME};
+
+    private static final int[] MIDGAME = new int[12 * 64];
+    private static final int[] ENDGAME = new int[12 * 64];
+    private static final int[] PHASE = new int[12];
+
+    static {
+        for (var color : ChessGame.TeamColor.values()) {
+            int sign = color == ChessGame.TeamColor.WHITE ? 1 : -1;
+            for (var type : ChessPiece.PieceType.values()) {
+                int pieceIndex = Bitboard.pieceIndex(color, type);
+                PHASE[pieceIndex] = PHASE_WEIGHTS[type.ordinal()];
+                for (int square = 0; square < 64; square++) {
+                    int rowFromTop = color == ChessGame.TeamColor.WHITE ? 7 - (square >>> 3) : square >>> 3;
+                    int layoutIndex = rowFromTop * 8 + (square & 7);
+                    MIDGAME[pieceIndex * 64 + square] = sign * (MIDGAME_MATERIAL[type.ordinal()]
+                            + MIDGAME_LAYOUT[type.ordinal()][layoutIndex]);
+                    ENDGAME[pieceIndex * 64 + square] = sign * (ENDGAME_MATERIAL[type.ordinal()]
+                            + ENDGAME_LAYOUT[type.ordinal()][layoutIndex]);
+                }
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    /**
+     * @param pieceIndex index from {@link Bitboard#pieceIndex}
+     * @return the midgame value of the piece on square; negative for black pieces
+     */
+    public static int midgame(int pieceIndex, int square) {
+        return MIDGAME[pieceIndex * 64 + square];
+    }
+
+    public static int endgame(int pieceIndex, int square) {
+        return ENDGAME[pieceIndex * 64 + square];
+    }
+
+    public static int phase(int pieceIndex) {
+        return PHASE[pieceIndex];
+    }
+
+    /**
+     * @return the midgame material value of a piece type, always positive
+     */
+    public static int material(ChessPiece.PieceType type) {
+        return MIDGAME_MATERIAL[type.ordinal()];
+    }
+}
@@ -0,0 +1,55 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing a position.
+ * <p>
+ * A position's key is the XOR of one key per piece on its square, one for the
+ * castling rights, one for the en passant file when a capture there is actually
+ * possible, and one when black is to move. The keys come from a fixed seed, so the
+ * same position hashes to the same value in every process and can be stored.
+ */
+public final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        var random = new SplittableRandom(0x5EED_C4E55L);
+        for (int i = 0; i < PIECE_SQUARE.length; i++) {
+            PIECE_SQUARE[i] = random.nextLong();
+        }
+        for (int i = 0; i < CASTLING.length; i++) {
+            CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            EN_PASSANT_FILE[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex index from {@link Bitboard#pieceIndex}
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex * 64 + square];
+    }
+
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    public static long enPassantFile(int square) {
+        return EN_PASSANT_FILE[square & 7];
+    }
+
+    public static long side(ChessGame.TeamColor toMove) {
+        return toMove == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0L;
+    }
+}
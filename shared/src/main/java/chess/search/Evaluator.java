@@ -0,0 +1,129 @@
+package chess.search;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Scores a position in centipawns from the point of view of the team to move.
+ * <p>
+ * Material and piece placement come straight from the sums {@link ChessBoard} keeps
+ * up to date as moves are made, so they cost nothing here. Pawn structure (doubled,
+ * isolated and passed pawns) is worked out from the pawn bitboards and cached by the
+ * board's pawn key, since the pawns rarely change between the positions a search
+ * visits. Midgame and endgame scores are blended by how much material is left.
+ * <p>
+ * The pawn cache makes an Evaluator unsafe to share between threads; each
+ * {@link Search} has its own.
+ */
+public class Evaluator {
+
+    private static final int PAWN_CACHE_SIZE = 1 << 14;
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    /**
+     * Passed pawn bonus by rows advanced from the pawn's own back rank
+     */
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 100, 150, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    /**
+     * Squares in front of a pawn, on its own and the neighboring files, by color then square
+     */
+    private static final long[][] PASSED_MASKS = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = Bitboard.FILE_A << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0L) | (file < 7 ? FILES[file + 1] : 0L);
+        }
+        for (int square = 0; square < 64; square++) {
+            int file = square & 7;
+            long span = FILES[file] | ADJACENT_FILES[file];
+            int row = square >>> 3;
+            long above = row == 7 ? 0L : -1L << ((row + 1) * 8);
+            long below = row == 0 ? 0L : -1L >>> ((8 - row) * 8);
+            PASSED_MASKS[ChessGame.TeamColor.WHITE.ordinal()][square] = span & above;
+            PASSED_MASKS[ChessGame.TeamColor.BLACK.ordinal()][square] = span & below;
+        }
+    }
+
+    /*
+     * Direct-mapped cache of pawn structure scores. Each int packs the midgame score in
+     * the high 16 bits and the endgame score in the low 16. Empty slots have key 0 and
+     * score 0, which is also the right answer for the pawnless boards whose key is 0.
+     */
+    private final long[] pawnKeys = new long[PAWN_CACHE_SIZE];
+    private final int[] pawnScores = new int[PAWN_CACHE_SIZE];
+
+    /**
+     * @return the material value of a piece type, for ordering captures
+     */
+    public static int value(ChessPiece.PieceType type) {
+        return PieceSquareTables.material(type);
+    }
+
+    /**
+     * @return the score for toMove; positive means toMove is ahead
+     */
+    public int evaluate(ChessBoard board, ChessGame.TeamColor toMove) {
+        int pawns = pawnStructure(board);
+        int midgame = board.getMidgameScore() + (pawns >> 16);
+        int endgame = board.getEndgameScore() + (short) pawns;
+        int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        int score = (midgame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return toMove == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    private int pawnStructure(ChessBoard board) {
+        long key = board.getPawnKey();
+        int slot = (int) key & (PAWN_CACHE_SIZE - 1);
+        if (pawnKeys[slot] == key) {
+            return pawnScores[slot];
+        }
+        long white = board.getPieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long black = board.getPieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        int midgame = 0;
+        int endgame = 0;
+        for (var color : ChessGame.TeamColor.values()) {
+            boolean isWhite = color == ChessGame.TeamColor.WHITE;
+            long ours = isWhite ? white : black;
+            long theirs = isWhite ? black : white;
+            int sign = isWhite ? 1 : -1;
+            for (int file = 0; file < 8; file++) {
+                int count = Long.bitCount(ours & FILES[file]);
+                if (count > 1) {
+                    midgame += sign * DOUBLED_MIDGAME * (count - 1);
+                    endgame += sign * DOUBLED_ENDGAME * (count - 1);
+                }
+                if (count > 0 && (ours & ADJACENT_FILES[file]) == 0) {
+                    midgame += sign * ISOLATED_MIDGAME * count;
+                    endgame += sign * ISOLATED_ENDGAME * count;
+                }
+            }
+            long pawns = ours;
+            while (pawns != 0) {
+                int square = Long.numberOfTrailingZeros(pawns);
+                pawns &= pawns - 1;
+                if ((PASSED_MASKS[color.ordinal()][square] & theirs) == 0) {
+                    int advanced = isWhite ? square >>> 3 : 7 - (square >>> 3);
+                    midgame += sign * PASSED_MIDGAME[advanced];
+                    endgame += sign * PASSED_ENDGAME[advanced];
+                }
+            }
+        }
+        int packed = (midgame << 16) | (endgame & 0xFFFF);
+        pawnKeys[slot] = key;
+        pawnScores[slot] = packed;
+        return packed;
+    }
+}
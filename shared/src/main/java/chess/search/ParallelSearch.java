@@ -0,0 +1,151 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.Fen;
+import chess.Perft;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Searches one position on several threads at once ("Lazy SMP").
+ * <p>
+ * The calling thread runs a normal {@link Search} with the time budget, and each helper
+ * thread searches the same root with its own Search and no deadline. They share nothing
+ * but the transposition table, so helpers mostly fill it with results the main search
+ * then finds instead of computing. Half of the helpers start one ply deeper so the
+ * threads don't all walk the same tree in step. When the main search finishes, the
+ * helpers are told to stop and the main result is returned with every thread's nodes
+ * added in.
+ */
+public class ParallelSearch implements AutoCloseable {
+
+    private static final long NO_LIMIT = TimeUnit.DAYS.toMillis(365);
+
+    private final int threads;
+    private final TranspositionTable table;
+    private final Search main;
+    private final Search[] helpers;
+    private final ExecutorService pool;
+
+    /**
+     * Uses one thread per available processor and a 64 MB table
+     */
+    public ParallelSearch() {
+        this(Runtime.getRuntime().availableProcessors(), new TranspositionTable(64));
+    }
+
+    /**
+     * @param threads total threads to search with, including the calling thread
+     * @param table   the table all threads share
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.threads = threads;
+        this.table = table;
+        main = new Search(table);
+        helpers = new Search[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Search(table);
+        }
+        pool = helpers.length == 0 ? null : Executors.newFixedThreadPool(helpers.length, runnable -> {
+            var thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public SearchResult search(ChessGame game, long millis) {
+        return search(game, Search.MAX_PLY - 1, millis);
+    }
+
+    /**
+     * Searches until maxDepth is complete or the time budget runs out. The game must
+     * not be changed until this returns. Calls are serialized, since the threads'
+     * Searches are reused.
+     */
+    public synchronized SearchResult search(ChessGame game, int maxDepth, long millis) {
+        if (pool == null) {
+            return main.search(game, maxDepth, millis);
+        }
+        var stop = new AtomicBoolean();
+        var running = new ArrayList<Future<SearchResult>>(helpers.length);
+        for (int i = 0; i < helpers.length; i++) {
+            var helper = helpers[i];
+            int firstDepth = 1 + (i & 1);
+            running.add(pool.submit(() -> helper.search(game, firstDepth, maxDepth, NO_LIMIT, stop)));
+        }
+        SearchResult result;
+        try {
+            result = main.search(game, maxDepth, millis);
+        } finally {
+            stop.set(true);
+        }
+        long nodes = result.nodes();
+        for (var future : running) {
+            try {
+                nodes += future.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), result.principalVariation(),
+                nodes, result.millis());
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Searches every perft reference position for a fixed time at 1, 2, 4, ... threads
+     * up to the processor count and prints the nodes per second and the depth reached.
+     * The first argument is the time per position in milliseconds (1000 by default) and
+     * the second the largest thread count to try.
+     */
+    public static void main(String[] args) {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        var threadCounts = new ArrayList<Integer>();
+        for (int threads = 1; threads < maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(maxThreads);
+        for (int threads : threadCounts) {
+            long nodes = 0;
+            long time = 0;
+            int depth = 0;
+            try (var search = new ParallelSearch(threads, new TranspositionTable(64))) {
+                for (var position : Perft.REFERENCE_POSITIONS) {
+                    var result = search.search(Fen.load(position.fen()), millis);
+                    nodes += result.nodes();
+                    time += result.millis();
+                    depth += result.depth();
+                }
+            }
+            System.out.printf("%2d threads  %,12d nps  average depth %.1f%n", threads,
+                    time == 0 ? 0 : nodes * 1000 / time, (double) depth / Perft.REFERENCE_POSITIONS.size());
+        }
+    }
+}
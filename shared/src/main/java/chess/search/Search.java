@@ -0,0 +1,417 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds the best move for the team to move with a negamax alpha-beta search.
+ * <p>
+ * The search deepens one ply at a time until the time budget runs out, keeping the
+ * result of the last iteration that finished. Positions are remembered in a
+ * {@link TranspositionTable}, whose best moves are tried first on later visits. After
+ * that, moves are ordered with captures first by most valuable victim and least
+ * valuable attacker, then killer moves (quiet moves that caused a cutoff at the same
+ * ply), then the remaining quiet moves by their history of causing cutoffs. At the
+ * horizon a quiescence search plays out captures so the evaluation is never taken in
+ * the middle of an exchange.
+ * <p>
+ * A Search reuses its buffers between calls and is not thread safe; give each thread
+ * its own. Several Searches can share one table, which is how {@link ParallelSearch}
+ * spreads a search over threads.
+ */
+public class Search {
+
+    public static final int MAX_PLY = 64;
+    public static final int INFINITY = 32_000;
+    public static final int MATE = 31_000;
+    /**
+     * Scores at or beyond this magnitude are forced mates
+     */
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final int TT_MOVE_SCORE = 1_000_000;
+    private static final int CAPTURE_SCORE = 100_000;
+    private static final int KILLER_SCORE = 90_000;
+    private static final int HISTORY_LIMIT = 50_000;
+    private static final int TIME_CHECK_MASK = 1023;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator = new Evaluator();
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][256];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][64 * 64];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    /*
+     * Keys of the game's positions since its last pawn move or capture, then of the
+     * positions on the current line, with the root at rootIndex
+     */
+    private long[] pathKeys = new long[MAX_PLY + 1];
+    private int rootIndex;
+
+    private ChessBoard board;
+    private long nodes;
+    private long deadline;
+    private boolean canStop;
+    private boolean stopped;
+    private AtomicBoolean stopSignal;
+
+    public Search() {
+        this(new TranspositionTable(16));
+    }
+
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList(256);
+        }
+    }
+
+    /**
+     * Searches for at most the given time. The first iteration always completes, so a
+     * move is returned even with a budget of zero.
+     *
+     * @param game   the game to search; it is not changed
+     * @param millis time budget in milliseconds
+     */
+    public SearchResult search(ChessGame game, long millis) {
+        return search(game, MAX_PLY - 1, millis);
+    }
+
+    /**
+     * Searches until maxDepth is complete or the time budget runs out, whichever is first
+     */
+    public SearchResult search(ChessGame game, int maxDepth, long millis) {
+        return search(game, 1, maxDepth, millis, null);
+    }
+
+    /**
+     * Searches depths firstDepth through maxDepth. Besides the time budget, the search
+     * ends as soon as it sees stopSignal set, even during its first iteration; the
+     * result then has no move if no iteration finished.
+     */
+    SearchResult search(ChessGame game, int firstDepth, int maxDepth, long millis, AtomicBoolean stopSignal) {
+        long start = System.nanoTime();
+        deadline = start + millis * 1_000_000L;
+        board = game.getBoard().clone();
+        var toMove = game.getTeamTurn();
+        var earlier = game.getPositionHistory();
+        rootIndex = earlier.length;
+        if (pathKeys.length < rootIndex + MAX_PLY + 1) {
+            pathKeys = new long[rootIndex + MAX_PLY + 1];
+        }
+        System.arraycopy(earlier, 0, pathKeys, 0, rootIndex);
+        nodes = 0;
+        canStop = false;
+        stopped = false;
+        this.stopSignal = stopSignal;
+        for (var slots : killers) {
+            slots[0] = Move.NONE;
+            slots[1] = Move.NONE;
+        }
+        for (var scores : history) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] /= 8;
+            }
+        }
+
+        int bestMove = Move.NONE;
+        int bestScore = 0;
+        int completed = 0;
+        List<ChessMove> line = List.of();
+        for (int depth = firstDepth; depth <= Math.min(maxDepth, MAX_PLY - 1); depth++) {
+            int score = negamax(toMove, depth, 0, -INFINITY, INFINITY);
+            if (stopped) {
+                break;
+            }
+            completed = depth;
+            bestScore = score;
+            bestMove = pvLength[0] > 0 ? pv[0][0] : Move.NONE;
+            line = principalVariation();
+            canStop = true;
+            long elapsed = System.nanoTime() - start;
+            if (bestMove == Move.NONE || Math.abs(score) >= MATE_BOUND || elapsed * 2 > deadline - start) {
+                break;
+            }
+        }
+        long millisUsed = (System.nanoTime() - start) / 1_000_000L;
+        board = null;
+        this.stopSignal = null;
+        return new SearchResult(bestMove == Move.NONE ? null : Move.toChessMove(bestMove), bestScore, completed,
+                line, nodes, millisUsed);
+    }
+
+    private List<ChessMove> principalVariation() {
+        var line = new ArrayList<ChessMove>(pvLength[0]);
+        for (int i = 0; i < pvLength[0]; i++) {
+            line.add(Move.toChessMove(pv[0][i]));
+        }
+        return line;
+    }
+
+    private int negamax(ChessGame.TeamColor color, int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        long key = board.getKey(color);
+        if (ply > 0 && isRepetition(key, ply)) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(board, color);
+        }
+        pathKeys[rootIndex + ply] = key;
+        boolean inCheck = board.isInCheck(color);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(color, ply, alpha, beta);
+        }
+
+        int ttMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            ttMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        var moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generate(board, color, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(color, ply, moves, ttMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(ply, moves, i);
+            board.makeMove(move);
+            int score = -negamax(color.opponent(), depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score <= best) {
+                continue;
+            }
+            best = score;
+            bestMove = move;
+            if (score > alpha) {
+                alpha = score;
+                updatePrincipalVariation(ply, move);
+                if (alpha >= beta) {
+                    if (!Move.isCapture(move) && !Move.isPromotion(move)) {
+                        rememberQuietCutoff(color, ply, move, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * A position already reached on this line, from the root on, is scored as a draw,
+     * since either side could go on repeating it. One that only came up before the
+     * root must have come up twice there, so that reaching it is a threefold repetition.
+     * Only every second key can match, since the team to move is part of the key.
+     */
+    private boolean isRepetition(long key, int ply) {
+        int earlierInGame = 0;
+        for (int i = rootIndex + ply - 2; i >= 0; i -= 2) {
+            if (pathKeys[i] == key) {
+                if (i >= rootIndex || ++earlierInGame == 2) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int quiesce(ChessGame.TeamColor color, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if ((++nodes & TIME_CHECK_MASK) == 0) {
+            checkTime();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY) {
+            return evaluator.evaluate(board, color);
+        }
+        boolean inCheck = board.isInCheck(color);
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(board, color);
+            if (best >= beta) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        var moves = moveLists[ply];
+        moves.clear();
+        MoveGenerator.generate(board, color, moves);
+        if (inCheck && moves.isEmpty()) {
+            return -MATE + ply;
+        }
+        if (!inCheck) {
+            int kept = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (Move.isCapture(move) || Move.isPromotion(move)) {
+                    moves.set(kept++, move);
+                }
+            }
+            moves.truncate(kept);
+        }
+        scoreMoves(color, ply, moves, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = nextMove(ply, moves, i);
+            board.makeMove(move);
+            int score = -quiesce(color.opponent(), ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void checkTime() {
+        if ((canStop && System.nanoTime() - deadline > 0) || (stopSignal != null && stopSignal.get())) {
+            stopped = true;
+        }
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        pv[ply][ply] = move;
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, pvLength[ply + 1] - (ply + 1));
+        pvLength[ply] = pvLength[ply + 1];
+    }
+
+    private void rememberQuietCutoff(ChessGame.TeamColor color, int ply, int move, int depth) {
+        if (!Move.same(killers[ply][0], move)) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        var scores = history[color.ordinal()];
+        int index = Move.from(move) * 64 + Move.to(move);
+        scores[index] += depth * depth;
+        if (scores[index] > HISTORY_LIMIT) {
+            for (int i = 0; i < scores.length; i++) {
+                scores[i] /= 2;
+            }
+        }
+    }
+
+    private void scoreMoves(ChessGame.TeamColor color, int ply, MoveList moves, int ttMove) {
+        var scores = orderScores[ply];
+        var historyScores = history[color.ordinal()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score;
+            if (ttMove != Move.NONE && Move.same(move, ttMove)) {
+                score = TT_MOVE_SCORE;
+            } else if (Move.isCapture(move) || Move.isPromotion(move)) {
+                var captured = board.getPiece(Move.to(move));
+                int victim = captured == null ? (Move.isCapture(move) ? Evaluator.value(ChessPiece.PieceType.PAWN) : 0)
+                        : Evaluator.value(captured.getPieceType());
+                int attacker = Evaluator.value(board.getPiece(Move.from(move)).getPieceType());
+                var promotion = Move.promotion(move);
+                score = CAPTURE_SCORE + victim * 10 - attacker / 10
+                        + (promotion == null ? 0 : Evaluator.value(promotion) * 10);
+            } else if (Move.same(move, killers[ply][0])) {
+                score = KILLER_SCORE;
+            } else if (Move.same(move, killers[ply][1])) {
+                score = KILLER_SCORE - 1;
+            } else {
+                score = historyScores[Move.from(move) * 64 + Move.to(move)];
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * Moves the best-scoring remaining move to index and returns it
+     */
+    private int nextMove(int ply, MoveList moves, int index) {
+        var scores = orderScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        if (best != index) {
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return move;
+    }
+
+    private static int toTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score + ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= MATE_BOUND) {
+            return score - ply;
+        }
+        if (score <= -MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+}
@@ -0,0 +1,38 @@
+package chess.search;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search: the move to play, its score in centipawns for the team to
+ * move, and the line of best play the search expects.
+ *
+ * @param bestMove           the move to play, or null if the team has no legal moves
+ * @param score              centipawns for the team to move; beyond ±{@link Search#MATE_BOUND} a forced mate
+ * @param depth              the deepest fully completed iteration
+ * @param principalVariation the expected line, starting with bestMove
+ * @param nodes              positions visited
+ * @param millis             time spent searching
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, List<ChessMove> principalVariation,
+                           long nodes, long millis) {
+
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE_BOUND;
+    }
+
+    /**
+     * @return the number of moves until mate by the side that is winning, or 0 if no mate was found
+     */
+    public int movesToMate() {
+        if (!isMate()) {
+            return 0;
+        }
+        return (Search.MATE - Math.abs(score) + 1) / 2;
+    }
+
+    public long nodesPerSecond() {
+        return millis == 0 ? nodes * 1000 : nodes * 1000 / millis;
+    }
+}
@@ -0,0 +1,101 @@
+package chess.search;
+
+import chess.Move;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist position key.
+ * <p>
+ * Each slot holds two longs: the packed entry and the key XORed with it. A probe
+ * only counts as a hit if XORing them back gives the key being looked up, which
+ * rejects both index collisions and half-written slots. A slot is overwritten by any
+ * other position, and by the same position when the new search went at least as deep.
+ * <p>
+ * The table is lock-free and safe to share between search threads. Each long is read
+ * and written atomically, but the pair is not, so two threads storing to one slot at
+ * once can leave a key from one and an entry from the other; the XOR check makes such
+ * a slot read as a miss rather than as a wrong entry.
+ * <p>
+ * Packed entry layout: bits 0-17 the best move ({@link Move} encoding), 18-33 the
+ * score, 34-41 the depth, and 42-43 the bound type. An empty entry is 0, which is
+ * never a valid entry since the bound is never 0.
+ */
+public class TranspositionTable {
+
+    public static final int EXACT = 1;
+    public static final int LOWER = 2;
+    public static final int UPPER = 3;
+
+    /**
+     * Slot i keeps the key XOR entry at 2i and the entry at 2i + 1
+     */
+    private final AtomicLongArray slots;
+    private final int mask;
+
+    /**
+     * @param megabytes approximate memory to use; the slot count is rounded down to a power of two
+     */
+    public TranspositionTable(int megabytes) {
+        int count = Integer.highestOneBit(Math.max(1, (int) Math.min(1 << 29, megabytes * 1024L * 1024L / 16)));
+        slots = new AtomicLongArray(count * 2);
+        mask = count - 1;
+    }
+
+    /**
+     * @return the packed entry stored for key, or 0 if there is none
+     */
+    public long probe(long key) {
+        int slot = ((int) key & mask) << 1;
+        long entry = slots.getOpaque(slot + 1);
+        return (slots.getOpaque(slot) ^ entry) == key ? entry : 0L;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int slot = ((int) key & mask) << 1;
+        long old = slots.getOpaque(slot + 1);
+        boolean samePosition = (slots.getOpaque(slot) ^ old) == key;
+        if (samePosition && depth < depth(old) && bound != EXACT) {
+            return;
+        }
+        if (samePosition && move == Move.NONE) {
+            move = move(old);
+        }
+        long entry = pack(move, score, depth, bound);
+        slots.setOpaque(slot + 1, entry);
+        slots.setOpaque(slot, key ^ entry);
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.setOpaque(i, 0L);
+        }
+    }
+
+    public int size() {
+        return slots.length() / 2;
+    }
+
+    static long pack(int move, int score, int depth, int bound) {
+        return (move & 0x3FFFFL)
+                | ((score & 0xFFFFL) << 18)
+                | ((long) Math.min(depth, 255) << 34)
+                | ((long) bound << 42);
+    }
+
+    public static int move(long entry) {
+        return (int) (entry & 0x3FFFF);
+    }
+
+    public static int score(long entry) {
+        return (short) (entry >>> 18);
+    }
+
+    public static int depth(long entry) {
+        return (int) (entry >>> 34) & 0xFF;
+    }
+
+    public static int bound(long entry) {
+        return (int) (entry >>> 42) & 3;
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The engine's view of a position. Scores are always from white's side, so every
+ * viewer of a game reads them the same way.
+ *
+ * @param positionKey        Zobrist key of the position, including the team to move
+ * @param depth              plies searched
+ * @param score              centipawns, positive when white is better
+ * @param mateIn             moves until mate, positive if white mates and negative if black does, or null
+ * @param bestMove           the best move for the team to move, or null if it has none
+ * @param principalVariation the line of best play, starting with bestMove
+ */
+public record Analysis(long positionKey, int depth, int score, Integer mateIn, ChessMove bestMove,
+                       List<ChessMove> principalVariation) {
+}
@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * Strengths the server's computer opponent can play at. Weaker levels search less
+ * deeply; every level has a time limit per move so bot games stay cheap to serve.
+ */
+public enum BotLevel {
+    BEGINNER(1, 1, 50),
+    CASUAL(2, 2, 100),
+    CLUB(3, 4, 250),
+    STRONG(4, 64, 500),
+    MASTER(5, 64, 1000);
+
+    private final int level;
+    private final int maxDepth;
+    private final long millis;
+
+    BotLevel(int level, int maxDepth, long millis) {
+        this.level = level;
+        this.maxDepth = maxDepth;
+        this.millis = millis;
+    }
+
+    /**
+     * @return the level with the given number (1 to 5), or null if there is none
+     */
+    public static BotLevel of(int level) {
+        for (var botLevel : values()) {
+            if (botLevel.level == level) {
+                return botLevel;
+            }
+        }
+        return null;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the time budget for one move in milliseconds
+     */
+    public long getMillis() {
+        return millis;
+    }
+}
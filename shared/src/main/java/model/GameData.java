@@ -2,11 +2,35 @@ package model;
 
 import chess.ChessGame;
 
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+/**
+ * A stored game. botLevel is null for games between people; otherwise the server
+ * plays whichever seat the one human player leaves open, at that {@link BotLevel}.
+ */
+public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game,
+                       Integer botLevel) {
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this(gameID, whiteUsername, blackUsername, gameName, game, null);
+    }
+
+    /**
+     * @return the color the computer plays, or null if this is not a bot game or no
+     * human has taken a seat yet
+     */
+    public ChessGame.TeamColor botColor() {
+        if (botLevel == null || (whiteUsername == null) == (blackUsername == null)) {
+            return null;
+        }
+        return whiteUsername == null ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
     @Override
     public String toString() {
-        String white = (whiteUsername != null) ? whiteUsername : "Open";
-        String black = (blackUsername != null) ? blackUsername : "Open";
+        var botColor = botColor();
+        String white = (whiteUsername != null) ? whiteUsername
+                : botColor == ChessGame.TeamColor.WHITE ? "Computer" : "Open";
+        String black = (blackUsername != null) ? blackUsername
+                : botColor == ChessGame.TeamColor.BLACK ? "Computer" : "Open";
         return gameName + "\n" +
                 "White Player: " + white + "\n" +
                 "Black Player: " + black + "\n";
@@ -1,12 +1,13 @@
 package serverfacade;
 
 import chess.ResponseException;
-import com.google.gson.Gson;
+import chess.ChessJson;
 import model.*;
 import requests.*;
 
 import java.io.*;
 import java.net.*;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 public class ServerFacade {
@@ -33,8 +34,28 @@ public class ServerFacade {
     }
 
     public Collection<GameData> list(String authToken) {
-        var path = "/game";
-        return makeRequest("GET", path, null, ListGamesResult.class, authToken).games();
+        return list(new ListGamesRequest(authToken)).games();
+    }
+
+    /**
+     * Gets one page of games; pass the result's nextCursor back to get the next one
+     */
+    public ListGamesResult list(ListGamesRequest req) {
+        var query = new StringBuilder();
+        addParam(query, "cursor", req.cursor());
+        addParam(query, "limit", req.limit());
+        addParam(query, "open", req.open());
+        addParam(query, "player", req.player());
+        addParam(query, "finished", req.finished());
+        var path = "/game" + query;
+        return makeRequest("GET", path, null, ListGamesResult.class, req.authToken());
+    }
+
+    private static void addParam(StringBuilder query, String name, Object value) {
+        if (value != null) {
+            query.append(query.isEmpty() ? '?' : '&').append(name).append('=')
+                    .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        }
     }
 
     public void join(JoinGameRequest req) {
@@ -75,7 +96,7 @@ public class ServerFacade {
             try (InputStream respBody = http.getInputStream()) {
                 InputStreamReader reader = new InputStreamReader(respBody);
                 if (responseClass != null) {
-                    response = new Gson().fromJson(reader, responseClass);
+                    response = ChessJson.gson().fromJson(reader, responseClass);
                 }
             }
         }
@@ -86,7 +107,7 @@ public class ServerFacade {
         http.setRequestProperty ("authorization", authToken);
         if (request != null) {
             http.addRequestProperty("Content-Type", "application/json");
-            String reqData = new Gson().toJson(request);
+            String reqData = ChessJson.gson().toJson(request);
             try (OutputStream reqBody = http.getOutputStream()) {
                 reqBody.write(reqData.getBytes());
             }
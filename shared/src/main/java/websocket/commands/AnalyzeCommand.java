@@ -0,0 +1,17 @@
+package websocket.commands;
+
+public class AnalyzeCommand extends UserGameCommand {
+    private final Integer depth;
+
+    /**
+     * @param depth how many plies to search, or null for the server's default
+     */
+    public AnalyzeCommand(CommandType commandType, String authToken, Integer gameID, Integer depth) {
+        super(commandType, authToken, gameID);
+        this.depth = depth;
+    }
+
+    public Integer getDepth() {
+        return depth;
+    }
+}
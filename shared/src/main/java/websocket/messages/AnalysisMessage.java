@@ -0,0 +1,22 @@
+package websocket.messages;
+
+import model.Analysis;
+
+public class AnalysisMessage extends ServerMessage {
+    private final int gameID;
+    private final Analysis analysis;
+
+    public AnalysisMessage(ServerMessageType type, int gameID, Analysis analysis) {
+        super(type);
+        this.gameID = gameID;
+        this.analysis = analysis;
+    }
+
+    public int getGameID() {
+        return this.gameID;
+    }
+
+    public Analysis getAnalysis() {
+        return this.analysis;
+    }
+}
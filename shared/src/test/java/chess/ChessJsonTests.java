@@ -0,0 +1,79 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ChessJsonTests {
+
+    private static ChessGame playedGame() throws InvalidMoveException {
+        var game = Fen.load("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 8), ChessPosition.of(8, 7), null));
+        return game;
+    }
+
+    @Test
+    @DisplayName("Same JSON As Reflection")
+    public void sameJsonAsReflection() throws InvalidMoveException {
+        var game = playedGame();
+        var reflective = new Gson();
+        Assertions.assertEquals(reflective.toJson(game.getBoard()), ChessJson.gson().toJson(game.getBoard()));
+        var move = new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        Assertions.assertEquals(reflective.toJson(move), ChessJson.gson().toJson(move));
+        var quiet = new ChessMove(ChessPosition.of(2, 1), ChessPosition.of(3, 1), null);
+        Assertions.assertEquals(reflective.toJson(quiet), ChessJson.gson().toJson(quiet));
+    }
+
+    @Test
+    @DisplayName("Reads Reflective JSON")
+    public void readsReflectiveJson() throws InvalidMoveException {
+        var game = playedGame();
+        var read = ChessJson.gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertEquals(game.getPositionKey(), read.getPositionKey());
+        Assertions.assertArrayEquals(game.getPositionHistory(), read.getPositionHistory());
+    }
+
+    @Test
+    @DisplayName("Reflection Reads Adapter JSON")
+    public void reflectionReadsAdapterJson() throws InvalidMoveException {
+        var game = playedGame();
+        var read = new Gson().fromJson(ChessJson.gson().toJson(game), ChessGame.class);
+        Assertions.assertEquals(game.toFen(), read.toFen());
+        Assertions.assertArrayEquals(game.getPositionHistory(), read.getPositionHistory());
+        read.makeMove(new ChessMove(ChessPosition.of(1, 6), ChessPosition.of(1, 5), null));
+    }
+
+    /*
+     * A game stored before the board kept its own castling rights and en passant square:
+     * 1. e4 Nf6 2. Nf3 a6 3. Rg1 a5 4. e5 d5
+     */
+    private static final String LEGACY_JSON = """
+            {"currentPlayer":"WHITE", "board":{"board":[
+                    [{"pieceColor":"WHITE","type":"ROOK"},{"pieceColor":"WHITE","type":"KNIGHT"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"QUEEN"},{"pieceColor":"WHITE","type":"KING"},{"pieceColor":"WHITE","type":"BISHOP"},{"pieceColor":"WHITE","type":"ROOK"},null],
+                    [{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},null,{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"}],
+                    [null,null,null,null,null,{"pieceColor":"WHITE","type":"KNIGHT"},null,null],
+                    [null,null,null,null,null,null,null,null],
+                    [{"pieceColor":"BLACK","type":"PAWN"},null,null,{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"WHITE","type":"PAWN"},null,null,null],
+                    [null,null,null,null,null,{"pieceColor":"BLACK","type":"KNIGHT"},null,null],
+                    [null,{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},null,{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"},{"pieceColor":"BLACK","type":"PAWN"}],
+                    [{"pieceColor":"BLACK","type":"ROOK"},{"pieceColor":"BLACK","type":"KNIGHT"},{"pieceColor":"BLACK","type":"BISHOP"},{"pieceColor":"BLACK","type":"QUEEN"},{"pieceColor":"BLACK","type":"KING"},{"pieceColor":"BLACK","type":"BISHOP"},null,{"pieceColor":"BLACK","type":"ROOK"}]],
+                    "whiteKing":{"row":1,"col":5},"blackKing":{"row":8,"col":5}},
+                "enPassantPosition":{"row":5,"col":4},
+                "whiteCanCastleRight":false,"blackCanCastleRight":true,"whiteCanCastleLeft":true,"blackCanCastleLeft":true,"gameOver":false}
+            """;
+
+    @Test
+    @DisplayName("Reads Legacy JSON")
+    public void readsLegacyJson() throws InvalidMoveException {
+        var game = ChessJson.gson().fromJson(LEGACY_JSON, ChessGame.class);
+        Assertions.assertTrue(game.toFen().startsWith("rnbqkb1r/1pp1pppp/5n2/p2pP3/8/5N2/PPPP1PPP/RNBQKBR1 w Qkq d6 "),
+                game.toFen());
+        Assertions.assertEquals(Fen.load("rnbqkb1r/1pp1pppp/5n2/p2pP3/8/5N2/PPPP1PPP/RNBQKBR1 w Qkq d6 0 1")
+                .getPositionKey(), game.getPositionKey());
+        game.makeMove(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null));
+        Assertions.assertNull(game.getBoard().getPiece(ChessPosition.of(5, 4)), "En passant capture left the pawn");
+    }
+}
@@ -0,0 +1,57 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Reference Positions Round Trip")
+    public void referencePositionsRoundTrip() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            Assertions.assertEquals(position.fen(), ChessGame.fromFen(position.fen()).toFen(), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves Are Written")
+    public void movesAreWritten() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+
+        var loaded = ChessGame.fromFen(game.toFen());
+        Assertions.assertEquals(game.getPositionKey(), loaded.getPositionKey());
+        Assertions.assertEquals(game.getTeamTurn(), loaded.getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("History Restores Repetitions")
+    public void historyRestoresRepetitions() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+
+        var loaded = ChessGame.fromFen(game.toFen());
+        loaded.setPositionHistory(game.getPositionHistory());
+        loaded.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, loaded.getStatus());
+    }
+
+    @Test
+    @DisplayName("Bad FEN Is Rejected")
+    public void badFenRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen("8/8/8/8/8/8/8/8"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - x 1"));
+    }
+}
@@ -0,0 +1,49 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Reference Positions Round Trip")
+    public void referencePositionsRoundTrip() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            var game = Fen.load(position.fen());
+            var bytes = GameCodec.encode(game);
+            Assertions.assertEquals(41, bytes.length);
+            var decoded = GameCodec.decode(bytes);
+            Assertions.assertEquals(position.fen(), decoded.toFen(), position.name());
+            Assertions.assertEquals(game.getPositionKey(), decoded.getPositionKey(), position.name());
+        }
+    }
+
+    @Test
+    @DisplayName("History And Game Over Kept")
+    public void historyAndGameOverKept() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.gameOver = true;
+
+        var decoded = GameCodec.decode(GameCodec.encode(game));
+        Assertions.assertArrayEquals(game.getPositionHistory(), decoded.getPositionHistory());
+        Assertions.assertTrue(decoded.gameOver);
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(0, GameCodec.decode(GameCodec.encode(game, false)).getPositionHistory().length);
+    }
+
+    @Test
+    @DisplayName("Bad Bytes Are Rejected")
+    public void badBytesRejected() {
+        var bytes = GameCodec.encode(new ChessGame());
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decode(Arrays.copyOf(bytes, 20)));
+        bytes[0] = 9;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+    }
+}
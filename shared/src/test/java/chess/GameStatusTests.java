@@ -0,0 +1,127 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class GameStatusTests {
+
+    @Test
+    @DisplayName("Status Follows Moves")
+    public void statusFollowsMoves() throws InvalidMoveException {
+        var game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+
+        game.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+
+        game.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus());
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Check and Stalemate")
+    public void checkAndStalemate() {
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK,
+                Fen.load("4k3/8/8/8/8/8/8/4K2r w - - 0 1").getStatus());
+        var stalemate = Fen.load("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, stalemate.getStatus());
+        Assertions.assertTrue(stalemate.isInStalemate(ChessGame.TeamColor.BLACK));
+        Assertions.assertFalse(stalemate.isInStalemate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Board Changes Are Seen")
+    public void boardChangesAreSeen() {
+        var game = Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.getBoard().addPiece(ChessPosition.of(1, 1),
+                ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getStatus());
+        game.setBoard(Fen.load("7k/5Q2/6K1/8/8/8/8/8 w - - 0 1").getBoard());
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("Threefold Repetition")
+    public void threefoldRepetition() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+            game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+            game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+            game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+            game.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+        }
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+        Assertions.assertTrue(game.getStatus().isDraw());
+
+        var copy = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, copy.getStatus(),
+                "Repetition lost when the game is saved");
+    }
+
+    @Test
+    @DisplayName("Pawn Move Resets History")
+    public void pawnMoveResetsHistory() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        Assertions.assertEquals(2, game.getHalfmoveClock());
+        game.makeMove(new ChessMove(ChessPosition.of(2, 1), ChessPosition.of(3, 1), null));
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+            game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+            game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+            game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        }
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("Fifty Move Rule")
+    public void fiftyMoveRule() throws InvalidMoveException {
+        var game = Fen.load("4k3/8/8/8/8/8/8/R3K3 w - - 98 80");
+        game.makeMove(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(2, 1), null));
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        game.makeMove(new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(8, 4), null));
+        Assertions.assertEquals(ChessGame.GameStatus.FIFTY_MOVE_RULE, game.getStatus());
+
+        var mate = Fen.load("3k4/R7/3K4/8/8/8/8/8 w - - 99 80");
+        mate.makeMove(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), null));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, mate.getStatus());
+    }
+
+    @Test
+    @DisplayName("Status Follows Restored History")
+    public void statusFollowsRestoredHistory() {
+        var game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+        long key = game.getPositionKey();
+        game.setPositionHistory(new long[]{key, 1L, key, 2L});
+        Assertions.assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.getStatus());
+        game.setBoard(game.getBoard());
+        Assertions.assertEquals(ChessGame.GameStatus.ONGOING, game.getStatus());
+    }
+
+    @Test
+    @DisplayName("Moves Off The Board")
+    public void movesOffTheBoard() {
+        var game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w Q - 0 1");
+        var fen = game.toFen();
+        for (var end : new ChessPosition[]{new ChessPosition(1, 9), new ChessPosition(1, 0), new ChessPosition(9, 1)}) {
+            Assertions.assertThrows(InvalidMoveException.class,
+                    () -> game.makeMove(new ChessMove(ChessPosition.of(1, 1), end, null)));
+        }
+        Assertions.assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(new ChessPosition(0, 1), ChessPosition.of(2, 1), null)));
+        Assertions.assertEquals(fen, game.toFen());
+    }
+}
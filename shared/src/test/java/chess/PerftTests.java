@@ -0,0 +1,54 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PerftTests {
+
+    private static final long MAX_NODES = 500_000;
+
+    @Test
+    @DisplayName("Reference Positions")
+    public void referencePositions() {
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            var game = Fen.load(position.fen());
+            var perft = new Perft(game);
+            for (int depth = 1; depth <= position.maxDepth() && position.expected(depth) <= MAX_NODES; depth++) {
+                Assertions.assertEquals(position.expected(depth), perft.count(depth),
+                        position.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Parallel Divide Matches")
+    public void parallelDivide() {
+        var position = Perft.REFERENCE_POSITIONS.get(1);
+        var game = Fen.load(position.fen());
+        var single = Perft.divide(game, 3, false);
+        var parallel = Perft.divide(game, 3, true);
+        Assertions.assertEquals(single, parallel);
+        Assertions.assertEquals(48, parallel.size());
+        Assertions.assertEquals(position.expected(3),
+                parallel.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Game Unchanged")
+    public void gameUnchanged() {
+        var game = new ChessGame();
+        var before = game.getBoard().clone();
+        new Perft(game).count(3);
+        Perft.divide(game, 3, true);
+        Assertions.assertEquals(before, game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Bad FEN")
+    public void badFen() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.load("8/8/8 x"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.load("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR"));
+    }
+}
@@ -0,0 +1,96 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.Fen;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.Perft;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+public class EvaluatorTests {
+
+    @Test
+    @DisplayName("Start Position Is Even")
+    public void startPositionIsEven() {
+        var evaluator = new Evaluator();
+        var game = new ChessGame();
+        Assertions.assertEquals(0, evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE));
+        Assertions.assertEquals(24, game.getBoard().getPhase());
+    }
+
+    @Test
+    @DisplayName("Mirrored Positions Score The Same")
+    public void mirroredPositions() {
+        var evaluator = new Evaluator();
+        var white = Fen.load("4k3/8/8/3P4/8/8/1PP5/4K2R w - - 0 1");
+        var black = Fen.load("4k2r/1pp5/8/8/3p4/8/8/4K3 b - - 0 1");
+        int score = evaluator.evaluate(white.getBoard(), ChessGame.TeamColor.WHITE);
+        Assertions.assertTrue(score > 500);
+        Assertions.assertEquals(score, evaluator.evaluate(black.getBoard(), ChessGame.TeamColor.BLACK));
+        Assertions.assertEquals(-score, evaluator.evaluate(black.getBoard(), ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Passed Pawns Count")
+    public void passedPawns() {
+        var evaluator = new Evaluator();
+        var passed = Fen.load("4k3/8/1P6/8/8/8/8/4K3 w - - 0 1");
+        var blocked = Fen.load("4k3/1p6/1P6/8/8/8/8/4K3 w - - 0 1");
+        var opposed = Fen.load("4k3/p7/1P6/8/8/8/8/4K3 w - - 0 1");
+        int withoutPawn = evaluator.evaluate(Fen.load("4k3/8/8/8/8/8/8/4K3 w - - 0 1").getBoard(),
+                ChessGame.TeamColor.WHITE);
+        Assertions.assertEquals(0, withoutPawn);
+        Assertions.assertTrue(evaluator.evaluate(passed.getBoard(), ChessGame.TeamColor.WHITE)
+                > evaluator.evaluate(opposed.getBoard(), ChessGame.TeamColor.WHITE) + 120);
+        Assertions.assertTrue(evaluator.evaluate(passed.getBoard(), ChessGame.TeamColor.WHITE)
+                > evaluator.evaluate(blocked.getBoard(), ChessGame.TeamColor.WHITE) + 120);
+    }
+
+    @Test
+    @DisplayName("Incremental Sums Match Rebuild")
+    public void incrementalSumsMatchRebuild() {
+        var random = new Random(240);
+        for (var position : Perft.REFERENCE_POSITIONS) {
+            var game = Fen.load(position.fen());
+            var board = game.getBoard();
+            var color = game.getTeamTurn();
+            var moves = new MoveList();
+            int played = 0;
+            for (int ply = 0; ply < 80; ply++) {
+                moves.clear();
+                MoveGenerator.generate(board, color, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                played++;
+                color = color.opponent();
+                assertMatchesRebuild(board);
+            }
+            for (int i = 0; i < played; i++) {
+                board.unmakeMove();
+            }
+            assertMatchesRebuild(board);
+            Assertions.assertEquals(Fen.load(position.fen()).getBoard().getMidgameScore(), board.getMidgameScore());
+        }
+    }
+
+    private static void assertMatchesRebuild(ChessBoard board) {
+        var copy = new ChessPiece[8][8];
+        for (int row = 0; row < 8; row++) {
+            copy[row] = board.getBoard()[row].clone();
+        }
+        var rebuilt = new ChessBoard();
+        rebuilt.setBoard(copy);
+        Assertions.assertEquals(rebuilt.getMidgameScore(), board.getMidgameScore());
+        Assertions.assertEquals(rebuilt.getEndgameScore(), board.getEndgameScore());
+        Assertions.assertEquals(rebuilt.getPhase(), board.getPhase());
+        Assertions.assertEquals(rebuilt.getPawnKey(), board.getPawnKey());
+    }
+}
@@ -0,0 +1,110 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import chess.Move;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class SearchTests {
+
+    @Test
+    @DisplayName("Mate in One")
+    public void mateInOne() {
+        var result = new Search().search(Fen.load("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), 1000);
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestMove());
+        Assertions.assertTrue(result.isMate());
+        Assertions.assertEquals(1, result.movesToMate());
+    }
+
+    @Test
+    @DisplayName("Mate in Two")
+    public void mateInTwo() throws InvalidMoveException {
+        var game = Fen.load("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+        var result = new Search().search(game, 6, 5000);
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(5, 4), ChessPosition.of(6, 6), null), result.bestMove());
+        Assertions.assertEquals(2, result.movesToMate());
+        Assertions.assertEquals(3, result.principalVariation().size());
+        for (var move : result.principalVariation()) {
+            game.makeMove(move);
+        }
+        Assertions.assertTrue(game.isInCheckmate(game.getTeamTurn()));
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Queen")
+    public void winsHangingQueen() {
+        var result = new Search().search(Fen.load("4k3/8/8/3q4/8/8/8/3RK3 w - - 0 1"), 4, 5000);
+        Assertions.assertEquals(new ChessMove(ChessPosition.of(1, 4), ChessPosition.of(5, 4), null), result.bestMove());
+        Assertions.assertTrue(result.score() > 300);
+    }
+
+    @Test
+    @DisplayName("No Legal Moves")
+    public void noLegalMoves() {
+        var result = new Search().search(Fen.load("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1"), 100);
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Respects Time Budget")
+    public void respectsTimeBudget() {
+        var game = new ChessGame();
+        var result = new Search().search(game, 100);
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertTrue(result.depth() >= 1);
+        Assertions.assertTrue(result.millis() < 1000, "took " + result.millis() + " ms");
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+    }
+
+    @Test
+    @DisplayName("Table Entries Round Trip")
+    public void tableEntriesRoundTrip() {
+        var table = new TranspositionTable(1);
+        int move = Move.encode(12, 28, null, Move.CAPTURE);
+        table.store(0x1234_5678_9ABC_DEF0L, move, -Search.MATE + 3, 7, TranspositionTable.LOWER);
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        Assertions.assertEquals(move, TranspositionTable.move(entry));
+        Assertions.assertEquals(-Search.MATE + 3, TranspositionTable.score(entry));
+        Assertions.assertEquals(7, TranspositionTable.depth(entry));
+        Assertions.assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        Assertions.assertEquals(0L, table.probe(0x1234_5678_9ABC_DEF1L));
+    }
+
+    @Test
+    @DisplayName("Parallel Search")
+    public void parallelSearch() throws InvalidMoveException {
+        try (var search = new ParallelSearch(3, new TranspositionTable(8))) {
+            var game = Fen.load("r2qkb1r/pp2nppp/3p4/2pNN1B1/2BnP3/3P4/PPP2PPP/R2bK2R w KQkq - 1 1");
+            var result = search.search(game, 6, 5000);
+            Assertions.assertEquals(new ChessMove(ChessPosition.of(5, 4), ChessPosition.of(6, 6), null), result.bestMove());
+            Assertions.assertEquals(2, result.movesToMate());
+
+            var timed = search.search(new ChessGame(), 100);
+            Assertions.assertNotNull(timed.bestMove());
+            Assertions.assertTrue(timed.millis() < 1000, "took " + timed.millis() + " ms");
+            Assertions.assertTrue(timed.nodes() > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Sees repetitions from before the search")
+    public void repetitionBeforeRoot() throws InvalidMoveException {
+        var game = Fen.load("k7/8/8/8/8/8/1q6/4K1N1 b - - 0 1");
+        var knightOut = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null);
+        var knightBack = new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null);
+        var kingOut = new ChessMove(ChessPosition.of(8, 1), ChessPosition.of(8, 2), null);
+        var kingBack = new ChessMove(ChessPosition.of(8, 2), ChessPosition.of(8, 1), null);
+        for (var move : new ChessMove[]{kingOut, knightOut, kingBack, knightBack, kingOut, knightOut, kingBack}) {
+            game.makeMove(move);
+        }
+        var result = new Search().search(game, 4, 5000);
+        Assertions.assertEquals(knightBack, result.bestMove(), "Lost side missed the draw by repetition");
+        Assertions.assertEquals(0, result.score());
+    }
+}